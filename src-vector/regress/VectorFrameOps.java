@@ -0,0 +1,72 @@
+package regress;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Frame operations on the incubator Vector API.
+ * This class lives in its own source root, compiling and running it requires --add-modules jdk.incubator.vector,
+ * {@link FrameOps#create()} only loads it when the module is present.
+ * <p>
+ * Packing views the pixels as longs of 8 pixels each. A multiplication gathers the low bit of every byte
+ * into the top byte of the lane, the lanes are shifted to their position in the row and ORed together.
+ * Mask conversions would be the obvious way, but they are not intrinsified on JDK 17.
+ */
+public class VectorFrameOps extends FrameOps {
+
+    /**
+     * At most one row per vector, so a row is always made of whole vectors
+     */
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED.length() <= 64
+            ? ByteVector.SPECIES_PREFERRED : ByteVector.SPECIES_512;
+    private static final VectorSpecies<Long> LONGS = BYTES.withLanes(long.class);
+
+    /**
+     * Moves bit 8 * i of a long to bit 56 + i, the other partial products either end up below bit 56
+     * or overflow without carrying into the top byte
+     */
+    private static final long GATHER = 0x0102040810204080L;
+
+    /**
+     * Position of the 8 pixels of each lane within the vector
+     */
+    private static final LongVector SHIFTS = LongVector.zero(LONGS).addIndex(8);
+
+    @Override
+    public void pack(byte[] display, long[] rows) {
+        for (int y = 0; y < ROWS; y++) {
+            long row = 0;
+            int offset = y * 64;
+            for (int x = 0; x < 64; x += BYTES.length()) {
+                long bits = ByteVector.fromArray(BYTES, display, offset + x)
+                        .reinterpretAsLongs()
+                        .mul(GATHER)
+                        .lanewise(VectorOperators.LSHR, 56)
+                        .lanewise(VectorOperators.LSHL, SHIFTS)
+                        .reduceLanes(VectorOperators.OR);
+                row |= bits << x;
+            }
+            rows[y] = row;
+        }
+    }
+
+    @Override
+    public int diff(long[] expected, long[] actual, long[] out) {
+        int y = 0;
+        for (; y <= ROWS - LONGS.length(); y += LONGS.length()) {
+            LongVector.fromArray(LONGS, expected, y)
+                    .lanewise(VectorOperators.XOR, LongVector.fromArray(LONGS, actual, y))
+                    .intoArray(out, y);
+        }
+        for (; y < ROWS; y++) {
+            out[y] = expected[y] ^ actual[y];
+        }
+        int count = 0;
+        for (int i = 0; i < ROWS; i++) {
+            count += Long.bitCount(out[i]);
+        }
+        return count;
+    }
+}
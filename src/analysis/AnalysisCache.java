@@ -0,0 +1,140 @@
+package analysis;
+
+import chip.QuirkDatabase;
+import chip.QuirkProfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * On-disk cache of analysis results, keyed by the SHA-1 of the ROM and the quirk profile.
+ * A ROM that was analyzed before loads in a single small file read.
+ */
+public class AnalysisCache {
+
+    /**
+     * Bumped whenever the file layout or the analysis changes, older files are ignored
+     */
+    private static final int VERSION = 2;
+
+    private final File directory;
+
+    public AnalysisCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cached analysis of the ROM, analyzing and storing it if needed
+     */
+    public ControlFlowGraph get(byte[] rom, QuirkProfile quirks) {
+        String hash = QuirkDatabase.hash(rom);
+        File file = getFile(hash, quirks);
+        if (file.exists()) {
+            try {
+                ControlFlowGraph graph = read(file, hash, quirks);
+                if (graph != null) {
+                    return graph;
+                }
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable analysis cache " + file + ": " + e.getMessage());
+            }
+        }
+
+        ControlFlowGraph graph = new RomAnalyzer(quirks).analyze(rom);
+        try {
+            write(graph);
+        } catch (IOException e) {
+            System.err.println("Failed to write analysis cache " + file + ": " + e.getMessage());
+        }
+        return graph;
+    }
+
+    private File getFile(String hash, QuirkProfile quirks) {
+        return new File(directory, hash + "-" + quirks + ".cfg");
+    }
+
+    private void write(ControlFlowGraph graph) throws IOException {
+        directory.mkdirs();
+        // Write to a temporary file first, so a concurrent reader never sees half a file
+        File file = getFile(graph.hash, graph.quirks);
+        File temporary = new File(directory, file.getName() + ".tmp" + Thread.currentThread().getId());
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+        try {
+            output.writeInt(VERSION);
+            output.write(graph.map);
+            output.writeInt(graph.blocks.size());
+            for (BasicBlock block : graph.blocks.values()) {
+                output.writeShort(block.getStart());
+                output.writeShort(block.getEnd());
+                output.writeByte(block.getFlags());
+                output.writeByte(block.getSuccessors().length);
+                for (int successor : block.getSuccessors()) {
+                    output.writeShort(successor);
+                }
+            }
+            writeList(output, graph.computedJumps);
+            writeList(output, graph.unknownWrites);
+        } finally {
+            output.close();
+        }
+        if (!temporary.renameTo(file)) {
+            file.delete();
+            if (!temporary.renameTo(file)) {
+                temporary.delete();
+                throw new IOException("Can't rename " + temporary);
+            }
+        }
+    }
+
+    private static void writeList(DataOutputStream output, List<Integer> list) throws IOException {
+        output.writeInt(list.size());
+        for (int value : list) {
+            output.writeShort(value);
+        }
+    }
+
+    /**
+     * @return
+     * The cached graph, or null if the file was written by a different version
+     */
+    private ControlFlowGraph read(File file, String hash, QuirkProfile quirks) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (input.readInt() != VERSION) {
+                return null;
+            }
+            ControlFlowGraph graph = new ControlFlowGraph(hash, quirks);
+            input.readFully(graph.map);
+            int blocks = input.readInt();
+            for (int i = 0; i < blocks; i++) {
+                int start = input.readUnsignedShort();
+                int end = input.readUnsignedShort();
+                int flags = input.readUnsignedByte();
+                int[] successors = new int[input.readUnsignedByte()];
+                for (int j = 0; j < successors.length; j++) {
+                    successors[j] = input.readUnsignedShort();
+                }
+                graph.blocks.put(start, new BasicBlock(start, end, flags, successors));
+            }
+            readList(input, graph.computedJumps);
+            readList(input, graph.unknownWrites);
+            return graph;
+        } finally {
+            input.close();
+        }
+    }
+
+    private static void readList(DataInputStream input, List<Integer> list) throws IOException {
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            list.add(input.readUnsignedShort());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package analysis;
+
+/**
+ * A straight run of instructions with a single entry, ended by a jump, call, return, skip or halt.
+ */
+public class BasicBlock {
+
+    /** The block ends with 00EE */
+    public static final int RETURN = 0x1;
+    /** The block ends with a 2NNN call, the successors are the callee and the return site */
+    public static final int CALL = 0x2;
+    /** The block ends with a BNNN jump, its target can't be known statically */
+    public static final int COMPUTED_JUMP = 0x4;
+    /** The block ends with an operation the interpreter does not support, or runs out of memory */
+    public static final int HALT = 0x8;
+
+    private final int start;
+    private final int end;
+    private final int flags;
+    private final int[] successors;
+
+    public BasicBlock(int start, int end, int flags, int[] successors) {
+        this.start = start;
+        this.end = end;
+        this.flags = flags;
+        this.successors = successors;
+    }
+
+    /**
+     * Address of the first instruction
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Address right after the last instruction
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * Start addresses of the blocks that may execute next
+     */
+    public int[] getSuccessors() {
+        return successors;
+    }
+}
@@ -0,0 +1,101 @@
+package analysis;
+
+import chip.QuirkProfile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of a static analysis: the basic blocks of a ROM and what every byte of memory is used for.
+ */
+public class ControlFlowGraph {
+
+    /** The byte is part of an instruction */
+    public static final int CODE = 0x1;
+    /** The byte is sprite data, drawn by DXYN */
+    public static final int SPRITE = 0x2;
+    /** The byte is read by FX65 */
+    public static final int DATA = 0x4;
+    /** The byte is written by FX33 or FX55 */
+    public static final int WRITTEN = 0x8;
+
+    final String hash;
+    final QuirkProfile quirks;
+    final byte[] map = new byte[4096];
+    final Map<Integer, BasicBlock> blocks = new TreeMap<Integer, BasicBlock>();
+    /**
+     * Addresses of BNNN instructions
+     */
+    final List<Integer> computedJumps = new ArrayList<Integer>();
+    /**
+     * Addresses of FX33 / FX55 instructions where I is not known
+     */
+    final List<Integer> unknownWrites = new ArrayList<Integer>();
+
+    ControlFlowGraph(String hash, QuirkProfile quirks) {
+        this.hash = hash;
+        this.quirks = quirks;
+    }
+
+    /**
+     * SHA-1 of the analyzed ROM
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public QuirkProfile getQuirks() {
+        return quirks;
+    }
+
+    /**
+     * All blocks, ordered by start address
+     */
+    public Collection<BasicBlock> getBlocks() {
+        return Collections.unmodifiableCollection(blocks.values());
+    }
+
+    /**
+     * Returns the block starting at the address, or null if no block starts there
+     */
+    public BasicBlock getBlock(int start) {
+        return blocks.get(start);
+    }
+
+    /**
+     * Returns the usage flags (CODE, SPRITE, DATA, WRITTEN) of a byte
+     */
+    public int getFlags(int address) {
+        return map[address];
+    }
+
+    public List<Integer> getComputedJumps() {
+        return Collections.unmodifiableList(computedJumps);
+    }
+
+    public List<Integer> getUnknownWrites() {
+        return Collections.unmodifiableList(unknownWrites);
+    }
+
+    /**
+     * Regions of code that the program writes to, as { start, end } with end exclusive
+     */
+    public List<int[]> getSelfModifyingRegions() {
+        List<int[]> regions = new ArrayList<int[]>();
+        int start = -1;
+        for (int address = 0; address <= map.length; address++) {
+            boolean modified = address < map.length && (map[address] & (CODE | WRITTEN)) == (CODE | WRITTEN);
+            if (modified && start < 0) {
+                start = address;
+            } else if (!modified && start >= 0) {
+                regions.add(new int[] { start, address });
+                start = -1;
+            }
+        }
+        return regions;
+    }
+}
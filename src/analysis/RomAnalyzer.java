@@ -0,0 +1,405 @@
+package analysis;
+
+import chip.Disassembler;
+import chip.QuirkDatabase;
+import chip.QuirkProfile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Recursively disassembles a ROM from 0x200 and builds its control flow graph.
+ * The value of I is tracked along every path, so sprites drawn after ANNN can be told apart from code
+ * and FX33 / FX55 writes into code are found. Paths that merge with different values of I make it unknown.
+ * A call continues at its return site with the value of I its subroutine returns with, merged over all of its 00EE.
+ */
+public class RomAnalyzer {
+
+    private static final int UNVISITED = -2;
+    private static final int UNKNOWN = -1;
+    /**
+     * Owner of an instruction that is reached from more than one subroutine
+     */
+    private static final int SHARED = -1;
+
+    private final QuirkProfile quirks;
+
+    public RomAnalyzer(QuirkProfile quirks) {
+        this.quirks = quirks;
+    }
+
+    public ControlFlowGraph analyze(byte[] rom) {
+        int[] memory = new int[4096];
+        for (int i = 0; i < rom.length && 0x200 + i < memory.length; i++) {
+            memory[0x200 + i] = rom[i] & 0xFF;
+        }
+
+        // Find every reachable instruction, the value of I before it and the subroutine it belongs to
+        int[] iBefore = new int[memory.length];
+        Arrays.fill(iBefore, UNVISITED);
+        int[] owner = new int[memory.length];
+        Arrays.fill(owner, UNVISITED);
+        // Value of I when a subroutine returns, indexed by its address
+        int[] iReturned = new int[memory.length];
+        Arrays.fill(iReturned, UNVISITED);
+        // Addresses of the calls to every subroutine
+        Map<Integer, List<Integer>> calls = new TreeMap<Integer, List<Integer>>();
+        boolean[] leaders = new boolean[memory.length];
+        ArrayDeque<Integer> work = new ArrayDeque<Integer>();
+        leaders[0x200] = true;
+        merge(iBefore, owner, work, 0x200, 0, 0x200);
+
+        do {
+            while (!work.isEmpty()) {
+                int pc = work.poll();
+                if (pc + 1 >= memory.length) {
+                    continue;
+                }
+                int opcode = (memory[pc] << 8) | memory[pc + 1];
+                int iAfter = iAfter(opcode, iBefore[pc]);
+                int[] successors = successors(pc, opcode);
+                boolean terminates = terminates(opcode);
+                for (int successor : successors) {
+                    if (terminates && successor < leaders.length) {
+                        leaders[successor] = true;
+                    }
+                }
+
+                if ((opcode & 0xF000) == 0x2000) {
+                    // The return site has to wait for the I the subroutine returns with
+                    int callee = opcode & 0x0FFF;
+                    merge(iBefore, owner, work, callee, iAfter, callee);
+                    List<Integer> sites = calls.get(callee);
+                    if (sites == null) {
+                        sites = new ArrayList<Integer>();
+                        calls.put(callee, sites);
+                    }
+                    if (!sites.contains(pc)) {
+                        sites.add(pc);
+                    }
+                    if (iReturned[callee] != UNVISITED) {
+                        merge(iBefore, owner, work, pc + 2, iReturned[callee], owner[pc]);
+                    }
+                } else if (opcode == 0x00EE) {
+                    if (owner[pc] == SHARED) {
+                        // Not known which subroutine returns here, so none of them returns a known I
+                        for (int callee : calls.keySet()) {
+                            returned(iBefore, owner, iReturned, calls, work, callee, UNKNOWN);
+                        }
+                    } else {
+                        returned(iBefore, owner, iReturned, calls, work, owner[pc], iBefore[pc]);
+                    }
+                } else {
+                    for (int successor : successors) {
+                        merge(iBefore, owner, work, successor, iAfter, owner[pc]);
+                    }
+                }
+            }
+
+            // Subroutines the analysis never sees return (computed jumps, endless loops) may still return
+            for (List<Integer> sites : calls.values()) {
+                for (int call : sites) {
+                    if (call + 2 < iBefore.length && iBefore[call + 2] == UNVISITED) {
+                        merge(iBefore, owner, work, call + 2, UNKNOWN, owner[call]);
+                    }
+                }
+            }
+        } while (!work.isEmpty());
+
+        // Cut the instructions into blocks and mark what the memory is used for
+        ControlFlowGraph graph = new ControlFlowGraph(QuirkDatabase.hash(rom), quirks);
+        for (int start = 0; start < memory.length; start++) {
+            if (!leaders[start] || iBefore[start] == UNVISITED) {
+                continue;
+            }
+            int pc = start;
+            while (true) {
+                if (pc + 1 >= memory.length) {
+                    graph.blocks.put(start, new BasicBlock(start, pc, BasicBlock.HALT, new int[0]));
+                    break;
+                }
+                int opcode = (memory[pc] << 8) | memory[pc + 1];
+                graph.map[pc] |= ControlFlowGraph.CODE;
+                graph.map[pc + 1] |= ControlFlowGraph.CODE;
+                markAccess(graph, pc, opcode, iBefore[pc]);
+                if ((opcode & 0xF000) == 0xB000) {
+                    graph.computedJumps.add(pc);
+                }
+
+                int[] successors = successors(pc, opcode);
+                if (terminates(opcode)) {
+                    graph.blocks.put(start, new BasicBlock(start, pc + 2, flags(opcode), successors));
+                    break;
+                }
+                pc += 2;
+                if (pc < memory.length && leaders[pc]) {
+                    graph.blocks.put(start, new BasicBlock(start, pc, 0, successors));
+                    break;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Merges the value of I and the owning subroutine into the instruction at pc, queues it if either changed
+     */
+    private static void merge(int[] iBefore, int[] owner, ArrayDeque<Integer> work, int pc, int i, int subroutine) {
+        if (pc >= iBefore.length) {
+            return;
+        }
+        int oldI = iBefore[pc];
+        int mergedI = oldI == UNVISITED || oldI == i ? i : UNKNOWN;
+        int oldOwner = owner[pc];
+        int mergedOwner = oldOwner == UNVISITED || oldOwner == subroutine ? subroutine : SHARED;
+        if (mergedI != oldI || mergedOwner != oldOwner) {
+            iBefore[pc] = mergedI;
+            owner[pc] = mergedOwner;
+            work.add(pc);
+        }
+    }
+
+    /**
+     * Merges the value of I at a 00EE into the summary of its subroutine and passes a change on to every return site
+     */
+    private static void returned(int[] iBefore, int[] owner, int[] iReturned, Map<Integer, List<Integer>> calls,
+                                 ArrayDeque<Integer> work, int subroutine, int i) {
+        int old = iReturned[subroutine];
+        int merged = old == UNVISITED || old == i ? i : UNKNOWN;
+        if (merged == old) {
+            return;
+        }
+        iReturned[subroutine] = merged;
+        List<Integer> sites = calls.get(subroutine);
+        if (sites != null) {
+            for (int call : sites) {
+                merge(iBefore, owner, work, call + 2, merged, owner[call]);
+            }
+        }
+    }
+
+    private void markAccess(ControlFlowGraph graph, int pc, int opcode, int i) {
+        int x = (opcode & 0x0F00) >> 8;
+        int flag;
+        int length;
+        if ((opcode & 0xF000) == 0xD000) {
+            flag = ControlFlowGraph.SPRITE;
+            length = opcode & 0x000F;
+        } else if ((opcode & 0xF0FF) == 0xF065) {
+            flag = ControlFlowGraph.DATA;
+            length = x + 1;
+        } else if ((opcode & 0xF0FF) == 0xF033 || (opcode & 0xF0FF) == 0xF055) {
+            flag = ControlFlowGraph.WRITTEN;
+            length = (opcode & 0xF0FF) == 0xF033 ? 3 : x + 1;
+        } else {
+            return;
+        }
+
+        if (i == UNKNOWN) {
+            if (flag == ControlFlowGraph.WRITTEN) {
+                graph.unknownWrites.add(pc);
+            }
+            return;
+        }
+        for (int address = i; address < i + length && address < graph.map.length; address++) {
+            graph.map[address] |= flag;
+        }
+    }
+
+    /**
+     * The value of I after the operation
+     */
+    private int iAfter(int opcode, int i) {
+        if ((opcode & 0xF000) == 0xA000) {
+            return opcode & 0x0FFF;
+        }
+        switch (opcode & 0xF0FF) {
+            case 0xF01E:
+            case 0xF029:
+                return UNKNOWN;
+            case 0xF055:
+            case 0xF065:
+                if (i == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                int x = (opcode & 0x0F00) >> 8;
+                switch (quirks.loadStore) {
+                    case INCREMENT_X: return (i + x) & 0xFFFF;
+                    case INCREMENT_X_PLUS_ONE: return (i + x + 1) & 0xFFFF;
+                    default: return i;
+                }
+            default:
+                return i;
+        }
+    }
+
+    /**
+     * Addresses that may execute after the operation at pc
+     */
+    private static int[] successors(int pc, int opcode) {
+        if (!isSupported(opcode)) {
+            return new int[0];
+        }
+        switch (opcode & 0xF000) {
+            case 0x0000:
+                return opcode == 0x00EE ? new int[0] : new int[] { pc + 2 };
+            case 0x1000:
+                return new int[] { opcode & 0x0FFF };
+            case 0x2000:
+                return new int[] { opcode & 0x0FFF, pc + 2 };
+            case 0x3000:
+            case 0x4000:
+            case 0x5000:
+            case 0x9000:
+            case 0xE000:
+                return new int[] { pc + 2, pc + 4 };
+            case 0xB000:
+                return new int[0];
+            default:
+                return new int[] { pc + 2 };
+        }
+    }
+
+    /**
+     * True if the operation ends a basic block
+     */
+    private static boolean terminates(int opcode) {
+        if (!isSupported(opcode)) {
+            return true;
+        }
+        switch (opcode & 0xF000) {
+            case 0x0000:
+                return opcode == 0x00EE;
+            case 0x1000:
+            case 0x2000:
+            case 0x3000:
+            case 0x4000:
+            case 0x5000:
+            case 0x9000:
+            case 0xB000:
+            case 0xE000:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int flags(int opcode) {
+        if (!isSupported(opcode)) {
+            return BasicBlock.HALT;
+        }
+        if (opcode == 0x00EE) {
+            return BasicBlock.RETURN;
+        }
+        switch (opcode & 0xF000) {
+            case 0x2000: return BasicBlock.CALL;
+            case 0xB000: return BasicBlock.COMPUTED_JUMP;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Mirrors the operations Chip.run() executes, everything else stops the chip
+     */
+    private static boolean isSupported(int opcode) {
+        switch (opcode & 0xF000) {
+            case 0x0000:
+                return opcode == 0x00E0 || opcode == 0x00EE;
+            case 0x8000: {
+                int n = opcode & 0x000F;
+                return n <= 0x7 || n == 0xE;
+            }
+            case 0xE000:
+                return (opcode & 0x00FF) == 0x9E || (opcode & 0x00FF) == 0xA1;
+            case 0xF000:
+                switch (opcode & 0x00FF) {
+                    case 0x07: case 0x0A: case 0x15: case 0x18: case 0x1E:
+                    case 0x29: case 0x33: case 0x55: case 0x65:
+                        return true;
+                    default:
+                        return false;
+                }
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Usage: RomAnalyzer [-quirks PROFILE] [-cache directory] rom.c8
+     */
+    public static void main(String[] args) throws Exception {
+        QuirkProfile quirks = QuirkProfile.LEGACY;
+        File cacheDirectory = new File("analysis-cache");
+        File rom = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-quirks")) {
+                quirks = QuirkProfile.valueOf(args[++i]);
+            } else if (args[i].equals("-cache")) {
+                cacheDirectory = new File(args[++i]);
+            } else {
+                rom = new File(args[i]);
+            }
+        }
+        if (rom == null) {
+            System.err.println("Usage: RomAnalyzer [-quirks PROFILE] [-cache directory] rom.c8");
+            System.exit(1);
+        }
+
+        byte[] program = Files.readAllBytes(rom.toPath());
+        AnalysisCache cache = new AnalysisCache(cacheDirectory);
+        long start = System.nanoTime();
+        ControlFlowGraph graph = cache.get(program, quirks);
+        System.out.println("Analyzed " + rom + " (" + graph.getHash() + ") in "
+                + (System.nanoTime() - start) / 1000 + " us");
+
+        for (BasicBlock block : graph.getBlocks()) {
+            StringBuilder successors = new StringBuilder();
+            for (int successor : block.getSuccessors()) {
+                successors.append(' ').append(hex(successor));
+            }
+            System.out.println("Block " + hex(block.getStart()) + " - " + hex(block.getEnd())
+                    + (block.hasFlag(BasicBlock.CALL) ? " call" : "")
+                    + (block.hasFlag(BasicBlock.RETURN) ? " return" : "")
+                    + (block.hasFlag(BasicBlock.COMPUTED_JUMP) ? " computed jump" : "")
+                    + (block.hasFlag(BasicBlock.HALT) ? " halt" : "")
+                    + " ->" + successors);
+            for (int pc = block.getStart(); pc < block.getEnd(); pc += 2) {
+                int opcode = (romByte(program, pc) << 8) | romByte(program, pc + 1);
+                System.out.println("    " + hex(pc) + ": " + Disassembler.disassemble(opcode));
+            }
+        }
+
+        int code = 0;
+        int sprites = 0;
+        for (int address = 0x200; address < 0x200 + program.length && address < 4096; address++) {
+            if ((graph.getFlags(address) & ControlFlowGraph.CODE) != 0) code++;
+            if ((graph.getFlags(address) & ControlFlowGraph.SPRITE) != 0) sprites++;
+        }
+        System.out.println(code + " bytes of code, " + sprites + " bytes of sprites, "
+                + (program.length - code - sprites) + " bytes unclassified or shared");
+        for (int pc : graph.getComputedJumps()) {
+            System.out.println("Computed jump at " + hex(pc));
+        }
+        for (int pc : graph.getUnknownWrites()) {
+            System.out.println("Write with unknown I at " + hex(pc));
+        }
+        for (int[] region : graph.getSelfModifyingRegions()) {
+            System.out.println("Self-modifying code at " + hex(region[0]) + " - " + hex(region[1]));
+        }
+    }
+
+    private static int romByte(byte[] program, int address) {
+        int offset = address - 0x200;
+        return offset >= 0 && offset < program.length ? program[offset] & 0xFF : 0;
+    }
+
+    private static String hex(int value) {
+        return Integer.toHexString(value).toUpperCase();
+    }
+}
@@ -60,6 +60,75 @@ public class Chip {
 
     private boolean needRedraw;
 
+    /**
+     * Source for CXNN, can be seeded to make runs reproducible
+     */
+    private Random random = new Random();
+
+    /**
+     * Prints every executed operation to System.out
+     */
+    private boolean verbose = true;
+    /**
+     * Suppresses the beep of the sound timer
+     */
+    private boolean muted;
+
+    /**
+     * The debugger, only set while it has something armed
+     */
+    private volatile Debugger debugger;
+
+    /**
+     * The quirk profile, resolved into the tables and masks below when the Chip is constructed
+     */
+    private final QuirkProfile quirks;
+    /**
+     * 8XY6 / 8XYE: 0x0 shifts VX, 0xF shifts VY
+     */
+    private final int shiftSourceMask;
+    /**
+     * FX55 / FX65: Amount added to I, indexed by X
+     */
+    private final int[] loadStoreIncrement = new int[16];
+    /**
+     * BNNN: 0x0 jumps relative to V0, 0xF relative to VX
+     */
+    private final int jumpRegisterMask;
+    /**
+     * DXYN: Maps a sprite column / row to the display, -1 if it is clipped
+     */
+    private final int[] spriteColumns = new int[64 + 8];
+    private final int[] spriteRows = new int[32 + 16];
+    /**
+     * 8XY1 / 8XY2 / 8XY3: VF is and-ed with this after the operation
+     */
+    private final char logicFlagMask;
+
+    public Chip() {
+        this(QuirkProfile.LEGACY);
+    }
+
+    public Chip(QuirkProfile quirks) {
+        this.quirks = quirks;
+        shiftSourceMask = quirks.shiftUsesVY ? 0xF : 0x0;
+        for (int x = 0; x < loadStoreIncrement.length; x++) {
+            switch (quirks.loadStore) {
+                case INCREMENT_X: loadStoreIncrement[x] = x; break;
+                case INCREMENT_X_PLUS_ONE: loadStoreIncrement[x] = x + 1; break;
+                default: loadStoreIncrement[x] = 0; break;
+            }
+        }
+        jumpRegisterMask = quirks.jumpUsesVX ? 0xF : 0x0;
+        for (int i = 0; i < spriteColumns.length; i++) {
+            spriteColumns[i] = quirks.clipSprites && i >= 64 ? -1 : i % 64;
+        }
+        for (int i = 0; i < spriteRows.length; i++) {
+            spriteRows[i] = quirks.clipSprites && i >= 32 ? -1 : i % 32;
+        }
+        logicFlagMask = quirks.logicResetsVF ? (char)0x00 : (char)0xFF;
+    }
+
     /**
      * Reset the Chip 8 memory and pointers
      */
@@ -85,11 +154,17 @@ public class Chip {
 
     /**
      * Executes a single Operation Code (Opcode)
+     * @return
+     * false if the debugger halted the chip and nothing was executed
      */
-    public void run() {
+    public boolean run() {
+        Debugger debugger = this.debugger;
+        if (debugger != null && debugger.shouldHalt()) {
+            return false;
+        }
         // fetch Opcode
         char opcode = (char) ((memory[pc] << 8) | memory[pc + 1]);
-        System.out.print(toHex(opcode) + ": ");
+        if (verbose) System.out.print(toHex(opcode) + ": ");
         // decode Opcode
         // execute Opcode
         switch (opcode & 0xF000) {
@@ -107,14 +182,12 @@ public class Chip {
                     case 0x00EE: { // 00EE: Returns from subroutine
                         stackPointer--;
                         pc = (char)(stack[stackPointer] + 2);
-                        System.out.println("Returning to 0x" + toHex(pc));
+                        if (verbose) System.out.println("Returning to 0x" + toHex(pc));
                         break;
                     }
 
                     default: { // 0NNN: Calls RCA 1802 Program at address NNN
-                        System.err.println("Unsupported Opcode!");
-                        System.exit(0);
-                        break;
+                        throw new ChipException("Unsupported Opcode: " + toHex(opcode));
                     }
 
                 }
@@ -125,7 +198,7 @@ public class Chip {
             case 0x1000: { // 1NNN: Jumps to address NNN
                 char nnn = (char)(opcode & 0x0FFF);
                 pc = nnn;
-                System.out.println("Jumping to 0x" + toHex(nnn));
+                if (verbose) System.out.println("Jumping to 0x" + toHex(nnn));
                 break;
             }
 
@@ -133,21 +206,21 @@ public class Chip {
                 stack[stackPointer] = pc;
                 stackPointer++;
                 pc = (char)(opcode & 0x0FFF);
-                System.out.println("Calling 0x" + toHex(pc) + " from " + toHex(stack[stackPointer - 1]));
+                if (verbose) System.out.println("Calling 0x" + toHex(pc) + " from " + toHex(stack[stackPointer - 1]));
                 break;
             }
 
             case 0x3000: { // 3XNN: Skips the next instruction if VX equals NN
                 int x = (opcode & 0x0F00) >> 8;
                 int nn = (opcode & 0x00FF);
-                System.out.print("Skips if V[0x" + toHex(x) + "] == 0x" + toHex(nn) +". ");
+                if (verbose) System.out.print("Skips if V[0x" + toHex(x) + "] == 0x" + toHex(nn) +". ");
                 if (V[x] == nn) {
                     pc += 0x4;
-                    System.out.println("Skipping next instruction (V[0x" + toHex(x) +"] == 0x" + toHex(nn) + ")");
+                    if (verbose) System.out.println("Skipping next instruction (V[0x" + toHex(x) +"] == 0x" + toHex(nn) + ")");
                 }
                 else {
                     pc += 0x2;
-                    System.out.println("Not skipping next instruction (V[0x" + toHex(x) +"] != 0x" + toHex(nn) + ")");
+                    if (verbose) System.out.println("Not skipping next instruction (V[0x" + toHex(x) +"] != 0x" + toHex(nn) + ")");
                 }
                 break;
             }
@@ -155,14 +228,14 @@ public class Chip {
             case 0x4000: { // 4XNN: Skips the next instruction if VX != NN
                 int x = (opcode & 0x0F00) >> 8;
                 int nn = (opcode & 0x00FF);
-                System.out.print("Skips if V[0x" + toHex(x) + "] != 0x" + toHex(nn) +". ");
+                if (verbose) System.out.print("Skips if V[0x" + toHex(x) + "] != 0x" + toHex(nn) +". ");
                 if (V[x] != nn){
                     pc += 0x4;
-                    System.out.println("0x" + toHex(V[x]) + " != 0x" + toHex(nn) +". Skipping next instruction.");
+                    if (verbose) System.out.println("0x" + toHex(V[x]) + " != 0x" + toHex(nn) +". Skipping next instruction.");
                 }
                 else {
                     pc += 0x2;
-                    System.out.println("0x" + toHex(V[x]) + " == 0x" + toHex(nn) +". Not skipping next instruction.");
+                    if (verbose) System.out.println("0x" + toHex(V[x]) + " == 0x" + toHex(nn) +". Not skipping next instruction.");
                 }
                 break;
             }
@@ -170,14 +243,14 @@ public class Chip {
             case 0x5000: { // 5XY0: Skips next instruction if VX == VY
                 int x = (opcode & 0x0F00) >> 8;
                 int y = (opcode & 0X00F0) >> 4;
-                System.out.print("Skips if V[0x" + toHex(x) + "] != V[0x" + toHex(y) +". ");
+                if (verbose) System.out.print("Skips if V[0x" + toHex(x) + "] != V[0x" + toHex(y) +". ");
                 if (V[x] == V[y]) {
                     pc += 0x4;
-                    System.out.println("0x" + toHex(V[x]) + " == 0x" + toHex(V[y]) +". Skipping next instruction.");
+                    if (verbose) System.out.println("0x" + toHex(V[x]) + " == 0x" + toHex(V[y]) +". Skipping next instruction.");
                 }
                 else {
                     pc += 0x2;
-                    System.out.println("0x" + toHex(V[x]) + " != 0x" + toHex(V[y]) +". Not skipping next instruction.");
+                    if (verbose) System.out.println("0x" + toHex(V[x]) + " != 0x" + toHex(V[y]) +". Not skipping next instruction.");
                 }
                 break;
             }
@@ -187,7 +260,7 @@ public class Chip {
                 int nn = (opcode & 0x00FF);
                 V[x] = (char)nn;
                 pc += 0x2; // advanced 2 because opcode uses pc and pc+1
-                System.out.println("Setting V[0x" + toHex(x) + "] to 0x" + toHex(nn));
+                if (verbose) System.out.println("Setting V[0x" + toHex(x) + "] to 0x" + toHex(nn));
                 break;
             }
 
@@ -196,7 +269,7 @@ public class Chip {
                 int nn = (opcode & 0x00FF);
                 V[x] = (char)((V[x] + nn) & 0xFF);
                 pc += 0x2;
-                System.out.println("Adding 0x" + toHex(nn) + " to V[0x" + toHex(x) + "] = 0x" + toHex(V[x]));
+                if (verbose) System.out.println("Adding 0x" + toHex(nn) + " to V[0x" + toHex(x) + "] = 0x" + toHex(V[x]));
                 break;
             }
 
@@ -209,7 +282,7 @@ public class Chip {
                         int y = (opcode & 0x00F0) >> 4;
                         V[x] = V[y];
                         pc += 0x2;
-                        System.out.println("Sets V[0x" + toHex(x) + "] to V[0x" + toHex(y) + "] = 0x" + toHex(V[y]));
+                        if (verbose) System.out.println("Sets V[0x" + toHex(x) + "] to V[0x" + toHex(y) + "] = 0x" + toHex(V[y]));
                         break;
                     }
 
@@ -217,8 +290,9 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         int y = (opcode & 0x00F0) >> 4;
                         V[x] = (char)((V[x] | V[y]) & 0xFF);
+                        V[0xF] &= logicFlagMask;
                         pc += 0x2;
-                        System.out.println("Sets V[0x" + toHex(x) + "] to 0x" + toHex(V[x]) + " | 0x" + toHex(V[y]) + " = 0x" + toHex(V[x] | V[y]));
+                        if (verbose) System.out.println("Sets V[0x" + toHex(x) + "] to 0x" + toHex(V[x]) + " | 0x" + toHex(V[y]) + " = 0x" + toHex(V[x] | V[y]));
                         break;
                     }
 
@@ -226,8 +300,9 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         int y = (opcode & 0x00F0) >> 4;
                         V[x] = (char)((V[x] & V[y]) & 0xFF);
+                        V[0xF] &= logicFlagMask;
                         pc += 0x2;
-                        System.out.println("Sets V[0x" + toHex(x) + "] to 0x" + toHex(V[x]) + " & 0x" + toHex(V[y]) + " = 0x" + toHex(V[x] & V[y]));
+                        if (verbose) System.out.println("Sets V[0x" + toHex(x) + "] to 0x" + toHex(V[x]) + " & 0x" + toHex(V[y]) + " = 0x" + toHex(V[x] & V[y]));
                         break;
                     }
 
@@ -235,8 +310,9 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         int y = (opcode & 0x00F0) >> 4;
                         V[x] = (char)((V[x] ^ V[y]) & 0xFF);
+                        V[0xF] &= logicFlagMask;
                         pc += 0x2;
-                        System.out.println("Sets V[0x" + toHex(x) + "] to 0x" + toHex(V[x]) + " ^ 0x" + toHex(V[y]) + " = 0x" + toHex(V[x] ^ V[y]));
+                        if (verbose) System.out.println("Sets V[0x" + toHex(x) + "] to 0x" + toHex(V[x]) + " ^ 0x" + toHex(V[y]) + " = 0x" + toHex(V[x] ^ V[y]));
                         break;
                     }
 
@@ -247,15 +323,15 @@ public class Chip {
                         V[0xF] = (char)((result & 0x100) >> 8);
 
                         if(V[0xF]==1){
-                            System.out.print("Carry Flag raised. ");
+                            if (verbose) System.out.print("Carry Flag raised. ");
                         }
                         else {
-                            System.out.print("Carry Flag cleared. ");
+                            if (verbose) System.out.print("Carry Flag cleared. ");
                         }
 
                         V[x] = (char)(result & 0xFF);
                         pc += 0x2;
-                        System.out.println("Adds V[0x" + toHex(x) + "] and V[0x" + toHex(y) + "] = " + toHex(result));
+                        if (verbose) System.out.println("Adds V[0x" + toHex(x) + "] and V[0x" + toHex(y) + "] = " + toHex(result));
                         break;
                     }
 
@@ -264,32 +340,33 @@ public class Chip {
                         int y = (opcode & 0x00F0) >> 4;
                         if (V[x] > V[y]){
                             V[0xF] = 1;
-                            System.out.print("NOT Borrow Flag raised. ");
+                            if (verbose) System.out.print("NOT Borrow Flag raised. ");
                         }
                         else {
                             V[0xF] = 0;
-                            System.out.print("NOT Borrow Flag cleared. ");
+                            if (verbose) System.out.print("NOT Borrow Flag cleared. ");
                         }
                         V[x] = (char)((V[x] - V[y]) & 0xFF);
                         pc += 0x2;
-                        System.out.println("Subtracting V[0x" + toHex(y) + "] from V[0x" + toHex(x) + ". Result = 0x" + toHex(V[x]));
+                        if (verbose) System.out.println("Subtracting V[0x" + toHex(y) + "] from V[0x" + toHex(x) + ". Result = 0x" + toHex(V[x]));
                         break;
                     }
 
 
-                    case 0x0006: { // 8XY6: Set Vx = Vx SHR 1.
+                    case 0x0006: { // 8XY6: Set Vx = Vx SHR 1 (or Vy SHR 1, depending on the quirks)
                         int x = (opcode & 0x0F00) >> 8;
-                        // int y = (opcode & 0x00F0) >> 4;
-                        if ((V[x] & 0x1)==1){
+                        int y = (opcode & 0x00F0) >> 4;
+                        int source = V[(x & ~shiftSourceMask) | (y & shiftSourceMask)];
+                        if ((source & 0x1)==1){
                             V[0xF] = 1;
-                            System.out.print("Overflow Flag raised. ");
+                            if (verbose) System.out.print("Overflow Flag raised. ");
                         }
                         else {
                             V[0xF] = 0;
-                            System.out.print("Overflow Flag cleared. ");
+                            if (verbose) System.out.print("Overflow Flag cleared. ");
                         }
-                        System.out.println("Dividing V[0x" + toHex(x) + "] = " + toHex(V[x]) + "by 2. Result = 0x" + toHex(V[x]>>1));
-                        V[x] = (char)((V[x] >> 1) & 0xFF);
+                        if (verbose) System.out.println("Dividing 0x" + toHex(source) + " by 2. Result = 0x" + toHex(source>>1));
+                        V[x] = (char)((source >> 1) & 0xFF);
                         pc += 0x2;
                         break;
                     }
@@ -301,14 +378,14 @@ public class Chip {
 
                         if(V[x] > V[y]) {
                             V[0xF] = 0;
-                            System.out.print("Borrow");
+                            if (verbose) System.out.print("Borrow");
                         } else {
                             V[0xF] = 1;
-                            System.out.print("No borrow");
+                            if (verbose) System.out.print("No borrow");
                         }
 
                         V[x] = (char)((V[y] - V[x]) & 0xFF);
-                        System.out.println("V[0x" + toHex(x) + "] = " + toHex(V[y]) + " - "
+                        if (verbose) System.out.println("V[0x" + toHex(x) + "] = " + toHex(V[y]) + " - "
                                            + toHex(V[x]));
 
                         pc += 0x2;
@@ -316,27 +393,26 @@ public class Chip {
                     }
 
 
-                    case 0x000E: { // 8XYE: Sets Vx = Vx SHL 1.
+                    case 0x000E: { // 8XYE: Sets Vx = Vx SHL 1 (or Vy SHL 1, depending on the quirks)
                         int x = (opcode & 0x0F00) >> 8;
-                        // int y = (opcode & 0x00F0) >> 4;
-                        if ((V[x] & 0x80)==0x80){
+                        int y = (opcode & 0x00F0) >> 4;
+                        int source = V[(x & ~shiftSourceMask) | (y & shiftSourceMask)];
+                        if ((source & 0x80)==0x80){
                             V[0xF] = 1;
-                            System.out.print("Overflow Flag raised. ");
+                            if (verbose) System.out.print("Overflow Flag raised. ");
                         }
                         else {
                             V[0xF] = 0;
-                            System.out.print("Overflow Flag cleared. ");
+                            if (verbose) System.out.print("Overflow Flag cleared. ");
                         }
-                        System.out.println("Dividing V[0x" + toHex(x) + "] = " + toHex(V[x]) + "by 2. Result = 0x" + toHex(V[x]>>1));
-                        V[x] = (char)((V[x] << 1) & 0xFF);
+                        if (verbose) System.out.println("Multiplying 0x" + toHex(source) + " by 2. Result = 0x" + toHex((source<<1) & 0xFF));
+                        V[x] = (char)((source << 1) & 0xFF);
                         pc += 0x2;
                         break;
                     }
 
                     default: {
-                        System.err.println("Unsupported Opcode!");
-                        System.exit(0);
-                        break;
+                        throw new ChipException("Unsupported Opcode: " + toHex(opcode));
                     }
 
                 }
@@ -347,14 +423,14 @@ public class Chip {
             case 0x9000: { // 9XY0: Skip next instruction if Vx != Vy.
                 int x = (opcode & 0x0F00) >> 8;
                 int y = (opcode & 0x00F0) >> 4;
-                System.out.print("Skips if V[0x" + toHex(x) + "] != V[0x" + toHex(y) +"]. ");
+                if (verbose) System.out.print("Skips if V[0x" + toHex(x) + "] != V[0x" + toHex(y) +"]. ");
                 if (V[x] != V[y]){
                     pc += 0x4;
-                    System.out.println("0x" + toHex(V[x]) + " != 0x" + toHex(V[y]) +". Skipping next instruction.");
+                    if (verbose) System.out.println("0x" + toHex(V[x]) + " != 0x" + toHex(V[y]) +". Skipping next instruction.");
                 }
                 else {
                     pc += 0x2;
-                    System.out.println("0x" + toHex(V[x]) + " == 0x" + toHex(V[y]) +". Not skipping next instruction.");
+                    if (verbose) System.out.println("0x" + toHex(V[x]) + " == 0x" + toHex(V[y]) +". Not skipping next instruction.");
                 }
                 break;
             }
@@ -363,13 +439,13 @@ public class Chip {
                 int nnn = (opcode & 0x0FFF);
                 I = (char)nnn;
                 pc += 0x2;
-                System.out.println("Set I to " + toHex(nnn));
+                if (verbose) System.out.println("Set I to " + toHex(nnn));
                 break;
             }
 
-            case 0xB000: { // BNNN Jumps to the address NNN plus V0.
+            case 0xB000: { // BNNN Jumps to the address NNN plus V0 (or XNN plus VX, depending on the quirks)
                 int nnn = opcode & 0x0FFF;
-                int extra = V[0] & 0xFF;
+                int extra = V[((opcode & 0x0F00) >> 8) & jumpRegisterMask] & 0xFF;
                 pc = (char)(nnn + extra);
                 break;
             }
@@ -377,10 +453,10 @@ public class Chip {
             case 0xC000: { // CXNN: Sets VX to a random number AND NN
                 int x = (opcode & 0x0F00) >> 8;
                 int nn = (opcode & 0x00FF);
-                int randomNumber =  new Random().nextInt(256) & nn;
+                int randomNumber =  random.nextInt(256) & nn;
                 V[x] = (char)(randomNumber & 0xFF);
                 pc += 0x2;
-                System.out.println("V[0x" + toHex(x) + "] has been set to (randomised) 0x" + toHex(randomNumber));
+                if (verbose) System.out.println("V[0x" + toHex(x) + "] has been set to (randomised) 0x" + toHex(randomNumber));
                 break;
             }
 
@@ -388,24 +464,26 @@ public class Chip {
                 // Drawing by XOR-ing to the screen
                 // Check collision and set V[0xF]
                 // Read the image from I
-                int x = V[(opcode & 0x0F00) >> 8];
-                int y = V[(opcode & 0x00F0) >> 4];
+                // The starting position always wraps around
+                int x = V[(opcode & 0x0F00) >> 8] % 64;
+                int y = V[(opcode & 0x00F0) >> 4] % 32;
                 int height = opcode & 0x000F;
 
                 V[0xF] = 0;
 
                 for(int _y = 0; _y < height; _y++) {
+                    // If the sprite is positioned so part of it is outside the coordinates of the display,
+                    // it either wraps around to the opposite side of the screen or is clipped
+                    int totalY = spriteRows[y + _y];
+                    if (totalY < 0)
+                        break;
                     int line = memory[I + _y];
                     for(int _x = 0; _x < 8; _x++) {
                         int pixel = line & (0x80 >> _x);
                         if(pixel != 0) {
-                            int totalX = x + _x;
-                            int totalY = y + _y;
-                            // If the sprite is positioned so part of it is outside the coordinates of the display,
-                            // it wraps around to the opposite side of the screen
-                            //index %= 64 * 32;
-                            totalX %= 64;
-                            totalY %= 32;
+                            int totalX = spriteColumns[x + _x];
+                            if (totalX < 0)
+                                break;
                             int index = totalY * 64 + totalX;
 
                             //System.out.print("Index = " + index + ". ");
@@ -418,7 +496,7 @@ public class Chip {
                 }
                 pc += 0x2;
                 needRedraw = true;
-                System.out.println("Drawing at V[0x" + toHex((opcode & 0x0F00) >> 8) + "] = 0x" + toHex(x) + ", V[0x" + toHex((opcode & 0x00F0) >> 4) + "] = 0x" + toHex(y));
+                if (verbose) System.out.println("Drawing at V[0x" + toHex((opcode & 0x0F00) >> 8) + "] = 0x" + toHex(x) + ", V[0x" + toHex((opcode & 0x00F0) >> 4) + "] = 0x" + toHex(y));
                 break;
             }
 
@@ -450,8 +528,7 @@ public class Chip {
                     }
 
                     default: {
-                        System.err.println("Unsupported Opcode!");
-                        System.exit(0);
+                        throw new ChipException("Unsupported Opcode: " + toHex(opcode));
                     }
                 }
                 break;
@@ -465,22 +542,22 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         V[x] = (char)delay_timer;
                         pc += 0x2;
-                        System.out.println("V[0x" + toHex(x) + "] has been set to delay_timer = 0x" + toHex(delay_timer));
+                        if (verbose) System.out.println("V[0x" + toHex(x) + "] has been set to delay_timer = 0x" + toHex(delay_timer));
                         break;
                     }
 
                     case 0x000A: { // FX0A: Wait for key press, store the value of the key in VX
                         int x = (opcode & 0x0F00) >> 8;
-                        System.out.print("Waiting for keypress. ");
+                        if (verbose) System.out.print("Waiting for keypress. ");
                         for (int i = 0; i < keys.length; i++)  {
                             if (keys[i] == 1) {
                                 V[x] = (char)i;
                                 pc += 0x2;
-                                System.out.print("Found: " + toHex(i) + "! ");
+                                if (verbose) System.out.print("Found: " + toHex(i) + "! ");
                                 break;
                             }
                         }
-                        System.out.println();
+                        if (verbose) System.out.println();
                         break;
                     }
 
@@ -488,7 +565,7 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         delay_timer = V[x];
                         pc += 0x2;
-                        System.out.println("Sets delay_timer to V[0x" + toHex(x) + "] = 0x" + toHex(V[x]));
+                        if (verbose) System.out.println("Sets delay_timer to V[0x" + toHex(x) + "] = 0x" + toHex(V[x]));
                         break;
                     }
 
@@ -496,7 +573,7 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         sound_timer = V[x];
                         pc += 0x2;
-                        System.out.println("Sets sound_timer to V[0x" + toHex(x) + "] = 0x" + toHex(V[x]));
+                        if (verbose) System.out.println("Sets sound_timer to V[0x" + toHex(x) + "] = 0x" + toHex(V[x]));
                         break;
                     }
 
@@ -504,7 +581,7 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         I = (char)((I + V[x]) & 0xFFFF);
                         pc += 0x2;
-                        System.out.println("Adding V[" + toHex(x) + "] to I. I = " + toHex(I));
+                        if (verbose) System.out.println("Adding V[" + toHex(x) + "] to I. I = " + toHex(I));
                         break;
                     }
 
@@ -512,7 +589,7 @@ public class Chip {
                         int x = (opcode & 0x0F00) >> 8;
                         int character = V[x];
                         I = (char)(0x50 + (character * 5));
-                        System.out.println("Setting I to Character V[0x" + toHex(x) + "] = 0x" + toHex(V[x]) + " Offset to 0x" + toHex(I));
+                        if (verbose) System.out.println("Setting I to Character V[0x" + toHex(x) + "] = 0x" + toHex(V[x]) + " Offset to 0x" + toHex(I));
                         pc += 0x2;
                         break;
                     }
@@ -528,7 +605,7 @@ public class Chip {
                         memory[I + 1] = (char)tens;
                         memory[I + 2] = (char)value;
                         pc += 0x2;
-                        System.out.println("Storing Binary-Coded Decimal V[0x" + toHex(x) + "] = " + toHex(V[x]) + " as { " + hundreds + ", " + tens + ", " + value + "}");
+                        if (verbose) System.out.println("Storing Binary-Coded Decimal V[0x" + toHex(x) + "] = " + toHex(V[x]) + " as { " + hundreds + ", " + tens + ", " + value + "}");
                         break;
                     }
 
@@ -538,9 +615,10 @@ public class Chip {
                             memory[I + i] = V[i];
                         }
                         pc += 0x2;
-                        System.out.println("Setting memory[0x" + toHex(I & 0xFFFF)
+                        if (verbose) System.out.println("Setting memory[0x" + toHex(I & 0xFFFF)
                                            + "] = V[0x0] to V[0x" + toHex
                                 (x) + "]");
+                        I = (char)(I + loadStoreIncrement[x]);
                         break;
                     }
 
@@ -550,20 +628,19 @@ public class Chip {
                             V[i] = memory[I + i];
                         }
                         pc += 0x2;
-                        System.out.println("Setting V[0x0] to V[0x" + toHex(x) + "] to the values of memory[0x" + toHex(I & 0xFFFF) + "]");
+                        if (verbose) System.out.println("Setting V[0x0] to V[0x" + toHex(x) + "] to the values of memory[0x" + toHex(I & 0xFFFF) + "]");
+                        I = (char)(I + loadStoreIncrement[x]);
                         break;
                     }
                     default: {
-                        System.err.println("Unsupported Opcode!");
-                        System.exit(0);
+                        throw new ChipException("Unsupported Opcode: " + toHex(opcode));
                     }
                 }
                 break;
             }
 
             default: {
-                System.err.println("Unsupported Opcode!");
-                System.exit(0);
+                throw new ChipException("Unsupported Opcode: " + toHex(opcode));
             }
         }
 
@@ -576,8 +653,10 @@ public class Chip {
 
         if (sound_timer != 0) {
             sound_timer = (char)(sound_timer -1);
-            Audio.playSound("./beep.wav");
+            if (!muted)
+                Audio.playSound("./beep.wav");
         }
+        return true;
     }
 
     /**
@@ -597,6 +676,132 @@ public class Chip {
         needRedraw = false;
     }
 
+    public QuirkProfile getQuirks() {
+        return quirks;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public int getI() {
+        return I;
+    }
+
+    /**
+     * Returns the value of register V[x]
+     */
+    public int getV(int x) {
+        return V[x];
+    }
+
+    /**
+     * Returns the number of return addresses on the stack
+     */
+    public int getStackPointer() {
+        return stackPointer;
+    }
+
+    /**
+     * Returns the address of the call instruction at the given stack level
+     */
+    public int getStack(int level) {
+        return stack[level];
+    }
+
+    public int getDelayTimer() {
+        return delay_timer;
+    }
+
+    public int getSoundTimer() {
+        return sound_timer;
+    }
+
+    public int readMemory(int address) {
+        return memory[address];
+    }
+
+    /**
+     * Reads the 2-byte opcode at the given address
+     */
+    public int readOpcode(int address) {
+        return (memory[address] << 8) | memory[address + 1];
+    }
+
+    /**
+     * Sets the key state from a bitmask, bit N is key N
+     */
+    public void setKeys(int mask) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (byte)((mask >> i) & 1);
+        }
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    /**
+     * Seeds the random number generator used by CXNN
+     */
+    public void setSeed(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Copies the machine state into the given snapshot
+     */
+    public void saveState(ChipState state) {
+        System.arraycopy(memory, 0, state.memory, 0, memory.length);
+        System.arraycopy(V, 0, state.V, 0, V.length);
+        state.I = I;
+        state.pc = pc;
+        System.arraycopy(stack, 0, state.stack, 0, stack.length);
+        state.stackPointer = stackPointer;
+        state.delay_timer = delay_timer;
+        state.sound_timer = sound_timer;
+        System.arraycopy(keys, 0, state.keys, 0, keys.length);
+        System.arraycopy(display, 0, state.display, 0, display.length);
+        state.needRedraw = needRedraw;
+    }
+
+    /**
+     * Restores the machine state from the given snapshot
+     */
+    public void loadState(ChipState state) {
+        System.arraycopy(state.memory, 0, memory, 0, memory.length);
+        System.arraycopy(state.V, 0, V, 0, V.length);
+        I = state.I;
+        pc = state.pc;
+        System.arraycopy(state.stack, 0, stack, 0, stack.length);
+        stackPointer = state.stackPointer;
+        delay_timer = state.delay_timer;
+        sound_timer = state.sound_timer;
+        System.arraycopy(state.keys, 0, keys, 0, keys.length);
+        System.arraycopy(state.display, 0, display, 0, display.length);
+        needRedraw = state.needRedraw;
+    }
+
+    void setDebugger(Debugger debugger) {
+        this.debugger = debugger;
+    }
+
+    /**
+     * Loads a program from memory at 0x200
+     */
+    public void loadProgram(byte[] program) {
+        if (program.length > memory.length - 0x200) {
+            throw new ChipException("Program too large: " + program.length + " bytes");
+        }
+        for (int i = 0; i < program.length; i++) {
+            memory[0x200 + i] = (char)(program[i] & 0xFF);
+        }
+    }
+
     public void loadProgram(String file) {
         DataInputStream input = null;
         try {
@@ -0,0 +1,11 @@
+package chip;
+
+/** Thrown when the Chip encounters an operation it can not execute. */
+public class ChipException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChipException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package chip;
+
+/**
+ * A copy of the complete machine state of a Chip.
+ * Restoring a state is a handful of array copies, which is much cheaper than resetting and re-running a program.
+ */
+public class ChipState {
+
+    final char[] memory = new char[4096];
+    final char[] V = new char[16];
+    char I;
+    char pc;
+    final char[] stack = new char[16];
+    int stackPointer;
+    int delay_timer;
+    int sound_timer;
+    final byte[] keys = new byte[16];
+    final byte[] display = new byte[64 * 32];
+    boolean needRedraw;
+
+    public int getPc() {
+        return pc;
+    }
+}
@@ -0,0 +1,341 @@
+package chip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Breakpoints, watchpoints and stepping for a single Chip.
+ * The debugger only hooks itself into the chip while something is armed,
+ * so an idle debugger costs the execution loop nothing but a null check.
+ */
+public class Debugger {
+
+    /** Gets notified whenever the debugger halts the chip */
+    public interface Listener {
+        void halted(Debugger debugger, String reason);
+    }
+
+    /** Registers a condition can be tested against, register 0x10 is I */
+    public static final int REGISTER_I = 0x10;
+
+    public enum Comparison { EQUAL, NOT_EQUAL, LESS, GREATER }
+
+    private enum StepMode { NONE, STEP, STEP_OVER, STEP_OUT }
+
+    private final Chip chip;
+
+    /**
+     * PC breakpoints, one bit per address of the 4kB memory
+     */
+    private final long[] breakpoints = new long[4096 / 64];
+    private int breakpointCount;
+
+    private final List<Watchpoint> watchpoints = new ArrayList<Watchpoint>();
+    private final List<Condition> conditions = new ArrayList<Condition>();
+    private final List<Listener> listeners = new ArrayList<Listener>();
+
+    private boolean paused;
+    /**
+     * Lets the instruction the chip is halted on execute once without triggering again
+     */
+    private boolean resuming;
+    private StepMode stepMode = StepMode.NONE;
+    /**
+     * Stack depth at which step over and step out halt
+     */
+    private int stepDepth;
+
+    public Debugger(Chip chip) {
+        this.chip = chip;
+    }
+
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void addBreakpoint(int address) {
+        long mask = 1L << (address & 63);
+        if ((breakpoints[(address & 0xFFF) >> 6] & mask) == 0) {
+            breakpoints[(address & 0xFFF) >> 6] |= mask;
+            breakpointCount++;
+            updateArmed();
+        }
+    }
+
+    public synchronized void removeBreakpoint(int address) {
+        long mask = 1L << (address & 63);
+        if ((breakpoints[(address & 0xFFF) >> 6] & mask) != 0) {
+            breakpoints[(address & 0xFFF) >> 6] &= ~mask;
+            breakpointCount--;
+            updateArmed();
+        }
+    }
+
+    public synchronized boolean hasBreakpoint(int address) {
+        return (breakpoints[(address & 0xFFF) >> 6] & (1L << (address & 63))) != 0;
+    }
+
+    /**
+     * Halts before any instruction that reads and/or writes memory in [start, end]
+     * Only the I-relative accesses (DXYN, FX33, FX55, FX65) touch memory
+     */
+    public synchronized void addWatchpoint(int start, int end, boolean read, boolean write) {
+        watchpoints.add(new Watchpoint(start, end, read, write));
+        updateArmed();
+    }
+
+    /**
+     * Halts when the register starts to compare to the value
+     * The condition triggers again only after it has been false in between
+     * @param register
+     * 0x0 - 0xF for V0 - VF, or {@link #REGISTER_I}
+     */
+    public synchronized void addCondition(int register, Comparison comparison, int value) {
+        conditions.add(new Condition(register, comparison, value));
+        updateArmed();
+    }
+
+    /**
+     * Removes all breakpoints, watchpoints and conditions
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < breakpoints.length; i++) {
+            breakpoints[i] = 0;
+        }
+        breakpointCount = 0;
+        watchpoints.clear();
+        conditions.clear();
+        updateArmed();
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    public synchronized void pause() {
+        stepMode = StepMode.NONE;
+        halt("Paused");
+    }
+
+    public synchronized void resume() {
+        stepMode = StepMode.NONE;
+        continueExecution();
+    }
+
+    /**
+     * Executes a single instruction
+     */
+    public synchronized void step() {
+        stepMode = StepMode.STEP;
+        continueExecution();
+    }
+
+    /**
+     * Executes a single instruction, subroutine calls are run until they return
+     */
+    public synchronized void stepOver() {
+        if ((chip.readOpcode(chip.getPc()) & 0xF000) == 0x2000) {
+            stepMode = StepMode.STEP_OVER;
+            stepDepth = chip.getStackPointer();
+        } else {
+            stepMode = StepMode.STEP;
+        }
+        continueExecution();
+    }
+
+    /**
+     * Runs until the current subroutine returns
+     */
+    public synchronized void stepOut() {
+        if (chip.getStackPointer() == 0) {
+            stepMode = StepMode.STEP;
+        } else {
+            stepMode = StepMode.STEP_OUT;
+            stepDepth = chip.getStackPointer() - 1;
+        }
+        continueExecution();
+    }
+
+    /**
+     * Disassembly around the current pc
+     */
+    public String disassembly() {
+        int start = Math.max(0x200, chip.getPc() - 8);
+        return Disassembler.disassemble(chip, start, 10);
+    }
+
+    /**
+     * Called by the chip before every instruction, but only while the debugger is armed
+     * @return
+     * true if the instruction may not be executed
+     */
+    synchronized boolean shouldHalt() {
+        if (paused) {
+            return true;
+        }
+        // Evaluated before every instruction, also the resumed one, so only a change to true triggers
+        String conditionHit = checkConditions();
+        if (resuming) {
+            resuming = false;
+            updateArmed();
+            return false;
+        }
+
+        int pc = chip.getPc();
+        switch (stepMode) {
+            case STEP:
+                stepMode = StepMode.NONE;
+                return halt("Step");
+            case STEP_OVER:
+            case STEP_OUT:
+                if (chip.getStackPointer() <= stepDepth) {
+                    stepMode = StepMode.NONE;
+                    return halt("Step");
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (breakpointCount > 0 && hasBreakpoint(pc)) {
+            return halt("Breakpoint at 0x" + Integer.toHexString(pc).toUpperCase());
+        }
+        if (!watchpoints.isEmpty()) {
+            String hit = checkWatchpoints(chip.readOpcode(pc));
+            if (hit != null) {
+                return halt(hit);
+            }
+        }
+        if (conditionHit != null) {
+            return halt(conditionHit);
+        }
+        return false;
+    }
+
+    private String checkConditions() {
+        String hit = null;
+        for (Condition condition : conditions) {
+            if (condition.becameTrue(chip) && hit == null) {
+                hit = "Condition " + condition;
+            }
+        }
+        return hit;
+    }
+
+    private String checkWatchpoints(int opcode) {
+        int x = (opcode & 0x0F00) >> 8;
+        int length;
+        boolean write;
+        if ((opcode & 0xF000) == 0xD000) {
+            length = opcode & 0x000F;
+            write = false;
+        } else if ((opcode & 0xF0FF) == 0xF033) {
+            length = 3;
+            write = true;
+        } else if ((opcode & 0xF0FF) == 0xF055) {
+            length = x + 1;
+            write = true;
+        } else if ((opcode & 0xF0FF) == 0xF065) {
+            length = x + 1;
+            write = false;
+        } else {
+            return null;
+        }
+        if (length == 0) {
+            return null;
+        }
+
+        int start = chip.getI();
+        int end = start + length - 1;
+        for (Watchpoint watchpoint : watchpoints) {
+            if ((write ? watchpoint.write : watchpoint.read) && start <= watchpoint.end && end >= watchpoint.start) {
+                return (write ? "Write" : "Read") + " of 0x" + Integer.toHexString(start).toUpperCase()
+                        + " - 0x" + Integer.toHexString(end).toUpperCase();
+            }
+        }
+        return null;
+    }
+
+    private boolean halt(String reason) {
+        paused = true;
+        updateArmed();
+        for (Listener listener : listeners) {
+            listener.halted(this, reason);
+        }
+        return true;
+    }
+
+    private void continueExecution() {
+        if (paused) {
+            paused = false;
+            resuming = true;
+        }
+        updateArmed();
+    }
+
+    /**
+     * Attaches the debugger to the chip if anything needs to be checked, detaches it otherwise
+     */
+    private void updateArmed() {
+        boolean armed = paused || resuming || stepMode != StepMode.NONE
+                || breakpointCount > 0 || !watchpoints.isEmpty() || !conditions.isEmpty();
+        chip.setDebugger(armed ? this : null);
+    }
+
+    private static class Watchpoint {
+        final int start;
+        final int end;
+        final boolean read;
+        final boolean write;
+
+        Watchpoint(int start, int end, boolean read, boolean write) {
+            this.start = start;
+            this.end = end;
+            this.read = read;
+            this.write = write;
+        }
+    }
+
+    private static class Condition {
+        final int register;
+        final Comparison comparison;
+        final int value;
+        /**
+         * Result of the previous test
+         */
+        boolean met;
+
+        Condition(int register, Comparison comparison, int value) {
+            this.register = register;
+            this.comparison = comparison;
+            this.value = value;
+        }
+
+        /**
+         * Tests the condition, returns true only if it was not met at the previous test
+         */
+        boolean becameTrue(Chip chip) {
+            boolean now = test(chip);
+            boolean changed = now && !met;
+            met = now;
+            return changed;
+        }
+
+        boolean test(Chip chip) {
+            int actual = register == REGISTER_I ? chip.getI() : chip.getV(register);
+            switch (comparison) {
+                case EQUAL: return actual == value;
+                case NOT_EQUAL: return actual != value;
+                case LESS: return actual < value;
+                case GREATER: return actual > value;
+                default: return false;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return (register == REGISTER_I ? "I" : "V" + Integer.toHexString(register).toUpperCase())
+                    + " " + comparison + " 0x" + Integer.toHexString(value).toUpperCase();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package chip;
+
+/** Converts opcodes into readable mnemonics. */
+public class Disassembler {
+
+    /**
+     * Disassembles a single opcode
+     * @return
+     * The mnemonic, or "DW" followed by the raw word if the opcode is unknown
+     */
+    public static String disassemble(int opcode) {
+        int x = (opcode & 0x0F00) >> 8;
+        int y = (opcode & 0x00F0) >> 4;
+        int n = opcode & 0x000F;
+        int nn = opcode & 0x00FF;
+        int nnn = opcode & 0x0FFF;
+
+        switch (opcode & 0xF000) {
+            case 0x0000:
+                if (opcode == 0x00E0) return "CLS";
+                if (opcode == 0x00EE) return "RET";
+                return "SYS  " + hex(nnn, 3);
+            case 0x1000: return "JP   " + hex(nnn, 3);
+            case 0x2000: return "CALL " + hex(nnn, 3);
+            case 0x3000: return "SE   V" + hex(x, 1) + ", " + hex(nn, 2);
+            case 0x4000: return "SNE  V" + hex(x, 1) + ", " + hex(nn, 2);
+            case 0x5000: return n == 0 ? "SE   V" + hex(x, 1) + ", V" + hex(y, 1) : raw(opcode);
+            case 0x6000: return "LD   V" + hex(x, 1) + ", " + hex(nn, 2);
+            case 0x7000: return "ADD  V" + hex(x, 1) + ", " + hex(nn, 2);
+            case 0x8000:
+                switch (n) {
+                    case 0x0: return "LD   V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x1: return "OR   V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x2: return "AND  V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x3: return "XOR  V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x4: return "ADD  V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x5: return "SUB  V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x6: return "SHR  V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0x7: return "SUBN V" + hex(x, 1) + ", V" + hex(y, 1);
+                    case 0xE: return "SHL  V" + hex(x, 1) + ", V" + hex(y, 1);
+                    default: return raw(opcode);
+                }
+            case 0x9000: return n == 0 ? "SNE  V" + hex(x, 1) + ", V" + hex(y, 1) : raw(opcode);
+            case 0xA000: return "LD   I, " + hex(nnn, 3);
+            case 0xB000: return "JP   V0, " + hex(nnn, 3);
+            case 0xC000: return "RND  V" + hex(x, 1) + ", " + hex(nn, 2);
+            case 0xD000: return "DRW  V" + hex(x, 1) + ", V" + hex(y, 1) + ", " + hex(n, 1);
+            case 0xE000:
+                if (nn == 0x9E) return "SKP  V" + hex(x, 1);
+                if (nn == 0xA1) return "SKNP V" + hex(x, 1);
+                return raw(opcode);
+            case 0xF000:
+                switch (nn) {
+                    case 0x07: return "LD   V" + hex(x, 1) + ", DT";
+                    case 0x0A: return "LD   V" + hex(x, 1) + ", K";
+                    case 0x15: return "LD   DT, V" + hex(x, 1);
+                    case 0x18: return "LD   ST, V" + hex(x, 1);
+                    case 0x1E: return "ADD  I, V" + hex(x, 1);
+                    case 0x29: return "LD   F, V" + hex(x, 1);
+                    case 0x33: return "LD   B, V" + hex(x, 1);
+                    case 0x55: return "LD   [I], V" + hex(x, 1);
+                    case 0x65: return "LD   V" + hex(x, 1) + ", [I]";
+                    default: return raw(opcode);
+                }
+            default:
+                return raw(opcode);
+        }
+    }
+
+    /**
+     * Disassembles a range of the chip's memory, one instruction per line
+     * The line of the current pc is marked with an arrow
+     */
+    public static String disassemble(Chip chip, int address, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int pc = address + i * 2;
+            if (pc + 1 >= 4096) {
+                break;
+            }
+            int opcode = chip.readOpcode(pc);
+            builder.append(pc == chip.getPc() ? "-> " : "   ")
+                    .append(hex(pc, 3)).append(": ")
+                    .append(hex(opcode, 4)).append("  ")
+                    .append(disassemble(opcode))
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String raw(int opcode) {
+        return "DW   " + hex(opcode, 4);
+    }
+
+    private static String hex(int value, int digits) {
+        String hex = Integer.toHexString(value).toUpperCase();
+        while (hex.length() < digits) {
+            hex = "0" + hex;
+        }
+        return hex;
+    }
+}
@@ -0,0 +1,94 @@
+package chip;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chooses the quirk profile of a ROM by its SHA-1 hash.
+ * The database is a text file with one "sha1 PROFILE" entry per line, # starts a comment.
+ */
+public class QuirkDatabase {
+
+    private final Map<String, QuirkProfile> profiles = new HashMap<String, QuirkProfile>();
+
+    public void load(String file) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(new File(file)));
+        try {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 2) {
+                    throw new IOException(file + ":" + number + ": Expected \"sha1 PROFILE\"");
+                }
+                try {
+                    profiles.put(parts[0].toLowerCase(), QuirkProfile.valueOf(parts[1]));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + ":" + number + ": Unknown profile " + parts[1]);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    public void put(byte[] rom, QuirkProfile profile) {
+        profiles.put(hash(rom), profile);
+    }
+
+    /**
+     * Returns the profile of the ROM, or the fallback if the ROM is unknown
+     */
+    public QuirkProfile lookup(byte[] rom, QuirkProfile fallback) {
+        QuirkProfile profile = profiles.get(hash(rom));
+        return profile != null ? profile : fallback;
+    }
+
+    /** Returns the lowercase hexadecimal SHA-1 of the ROM */
+    public static String hash(byte[] rom) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(rom);
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+                builder.append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Prints database entries for ROMs, to be appended to quirks.txt
+     * Usage: QuirkDatabase PROFILE rom.c8 ...
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: QuirkDatabase PROFILE rom.c8 ...");
+            System.exit(1);
+        }
+        QuirkProfile profile = QuirkProfile.valueOf(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            File rom = new File(args[i]);
+            System.out.println(hash(Files.readAllBytes(rom.toPath())) + " " + profile + "  # " + rom.getName());
+        }
+    }
+}
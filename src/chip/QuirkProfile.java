@@ -0,0 +1,50 @@
+package chip;
+
+/**
+ * Sets of compatibility quirks, the CHIP-8 variants disagree on the behaviour of several opcodes.
+ * A Chip resolves its profile into lookup tables and masks when it is constructed,
+ * so executing an opcode never has to check which profile is active.
+ */
+public enum QuirkProfile {
+
+    /** The behaviour of this interpreter before quirks became configurable */
+    LEGACY(false, LoadStore.UNCHANGED, false, false, false),
+    /** The original interpreter on the RCA COSMAC VIP */
+    COSMAC_VIP(true, LoadStore.INCREMENT_X_PLUS_ONE, false, true, true),
+    /** CHIP-48 on the HP-48 calculators */
+    CHIP_48(false, LoadStore.INCREMENT_X, true, true, false),
+    /** SUPER-CHIP 1.1 */
+    SCHIP(false, LoadStore.UNCHANGED, true, true, false),
+    /** XO-CHIP as implemented by Octo */
+    XO_CHIP(true, LoadStore.INCREMENT_X_PLUS_ONE, false, false, false);
+
+    /** What FX55 and FX65 do with I */
+    public enum LoadStore { UNCHANGED, INCREMENT_X, INCREMENT_X_PLUS_ONE }
+
+    /**
+     * 8XY6 and 8XYE shift VY into VX instead of shifting VX in place
+     */
+    public final boolean shiftUsesVY;
+    public final LoadStore loadStore;
+    /**
+     * BNNN jumps to XNN plus VX instead of NNN plus V0
+     */
+    public final boolean jumpUsesVX;
+    /**
+     * DXYN clips sprites at the edges instead of wrapping them around
+     */
+    public final boolean clipSprites;
+    /**
+     * 8XY1, 8XY2 and 8XY3 reset VF
+     */
+    public final boolean logicResetsVF;
+
+    QuirkProfile(boolean shiftUsesVY, LoadStore loadStore, boolean jumpUsesVX,
+                 boolean clipSprites, boolean logicResetsVF) {
+        this.shiftUsesVY = shiftUsesVY;
+        this.loadStore = loadStore;
+        this.jumpUsesVX = jumpUsesVX;
+        this.clipSprites = clipSprites;
+        this.logicResetsVF = logicResetsVF;
+    }
+}
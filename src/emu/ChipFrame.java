@@ -1,6 +1,7 @@
 package emu;
 
 import chip.Chip;
+import chip.Debugger;
 
 import javax.swing.*;
 import java.awt.*;
@@ -9,21 +10,27 @@ import java.awt.event.KeyListener;
 
 public class ChipFrame extends JFrame implements KeyListener {
 
+    /**
+     * Fast-forward speeds, 0 means uncapped
+     */
+    public static final int[] TURBO_MULTIPLIERS = { 2, 4, 8, 16, 0 };
+
     private ChipPanel panel;
+    private Debugger debugger;
     private int[] keyBuffer;
     private int[] keyIdtoKey;
 
+    private volatile boolean turbo;
+    private volatile int turboIndex = 1;
+    private double speed = 1.0;
+
     public ChipFrame(Chip c) {
-        setPreferredSize(new Dimension(640, 320));
-        pack();
-        setPreferredSize(new Dimension(
-                640 + getInsets().left + getInsets().right,
-                320 + getInsets().top  + getInsets().bottom));
         panel = new ChipPanel(c);
         setLayout(new BorderLayout());
         add(panel, BorderLayout.CENTER);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
-        setTitle("CHIP-8 Emulator");
+        updateTitle();
+        setResizable(true);
         pack();
         setVisible(true);
         addKeyListener(this);
@@ -55,15 +62,101 @@ public class ChipFrame extends JFrame implements KeyListener {
         keyIdtoKey['V'] = 0xF;
     }
 
+    private void updateTitle() {
+        String title = "CHIP-8 Emulator [" + panel.getFilter() + "]";
+        int multiplier = TURBO_MULTIPLIERS[turboIndex];
+        title += " Turbo: " + (multiplier == 0 ? "uncapped" : multiplier + "x");
+        if (turbo) {
+            title += String.format(" (%.1fx)", speed);
+        }
+        setTitle(title);
+    }
+
+    /**
+     * Shows the achieved speed, relative to normal speed, in the title
+     * May be called from any thread
+     */
+    public void setSpeed(final double speed) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                ChipFrame.this.speed = speed;
+                updateTitle();
+            }
+        });
+    }
+
+    /**
+     * Returns true while the fast-forward key is held
+     */
+    public boolean isTurbo() {
+        return turbo;
+    }
+
+    /**
+     * Returns the fast-forward speed multiple, 0 means uncapped
+     */
+    public int getTurboMultiplier() {
+        return TURBO_MULTIPLIERS[turboIndex];
+    }
+
     @Override
     public void keyPressed(KeyEvent e) {
+        if(e.getKeyCode() == KeyEvent.VK_F2) { // F2: Cycle through the scale filters
+            panel.setFilter(panel.getFilter().next());
+            updateTitle();
+            return;
+        }
+        if(e.getKeyCode() == KeyEvent.VK_SPACE) { // Space: Fast-forward while held
+            turbo = true;
+            return;
+        }
+        if(e.getKeyCode() == KeyEvent.VK_F3 || e.getKeyCode() == KeyEvent.VK_F4) { // F3 / F4: Slower / faster fast-forward
+            int step = e.getKeyCode() == KeyEvent.VK_F3 ? -1 : 1;
+            turboIndex = Math.max(0, Math.min(TURBO_MULTIPLIERS.length - 1, turboIndex + step));
+            updateTitle();
+            return;
+        }
+        if(debugger != null && handleDebugKey(e)) {
+            return;
+        }
         if(keyIdtoKey[e.getKeyCode()] != -1) {
             keyBuffer[keyIdtoKey[e.getKeyCode()]] = 1;
         }
     }
 
+    /**
+     * F5: Pause / Continue, F10: Step over, F11: Step, Shift + F11: Step out
+     */
+    private boolean handleDebugKey(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_F5:
+                if (debugger.isPaused())
+                    debugger.resume();
+                else
+                    debugger.pause();
+                return true;
+            case KeyEvent.VK_F10:
+                debugger.stepOver();
+                return true;
+            case KeyEvent.VK_F11:
+                if (e.isShiftDown())
+                    debugger.stepOut();
+                else
+                    debugger.step();
+                return true;
+            default:
+                return false;
+        }
+    }
+
     @Override
     public void keyReleased(KeyEvent e) {
+        if(e.getKeyCode() == KeyEvent.VK_SPACE) {
+            turbo = false;
+            updateTitle();
+            return;
+        }
         if(keyIdtoKey[e.getKeyCode()] != -1) {
             keyBuffer[keyIdtoKey[e.getKeyCode()]] = 0;
         }
@@ -74,6 +167,17 @@ public class ChipFrame extends JFrame implements KeyListener {
 
     }
 
+    /**
+     * Returns true while the display needs to be repainted every frame, even if nothing was drawn
+     */
+    public boolean isFading() {
+        return panel.isFading();
+    }
+
+    public void setDebugger(Debugger debugger) {
+        this.debugger = debugger;
+    }
+
     public int[] getKeyBuffer() {
         return keyBuffer;
     }
@@ -4,28 +4,79 @@ import chip.Chip;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 
 public class ChipPanel extends JPanel {
 
     private Chip chip;
+    private FrameRenderer renderer;
+    /**
+     * Copy of the rendered frame in a format the screen can scale in hardware
+     * The rendered image itself is written through its pixel array, which keeps Java2D from accelerating it
+     */
+    private VolatileImage screenImage;
 
     public ChipPanel(Chip chip) {
         this.chip = chip;
+        this.renderer = new FrameRenderer(ScaleFilter.NEAREST);
+        setPreferredSize(new Dimension(FrameRenderer.WIDTH * 10, FrameRenderer.HEIGHT * 10));
+        setBackground(Color.BLACK);
     }
 
+    public ScaleFilter getFilter() {
+        return renderer.getFilter();
+    }
+
+    /**
+     * Returns true while the display is fading out and needs to be repainted every frame
+     */
+    public boolean isFading() {
+        return renderer.isFading();
+    }
+
+    public void setFilter(ScaleFilter filter) {
+        renderer.setFilter(filter);
+        repaint();
+    }
+
+    /**
+     * Renders the display once at native resolution and stretches the result
+     * by the largest integer multiple that fits, centered in the panel
+     */
     public void paint(Graphics g) {
-        byte[] display = chip.getDisplay();
-        for (int i = 0; i < display.length; i++) {
-            if (display[i] == 0)
-                g.setColor(Color.BLACK);
-            else
-                g.setColor(Color.WHITE);
+        BufferedImage image = renderer.render(chip.getDisplay());
 
-            int x = (i % 64);
-            int y = (int) Math.floor(i / 64);
+        int scale = Math.max(1, Math.min(getWidth() / image.getWidth(), getHeight() / image.getHeight()));
+        int width = image.getWidth() * scale;
+        int height = image.getHeight() * scale;
+        int x = (getWidth() - width) / 2;
+        int y = (getHeight() - height) / 2;
+
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (g instanceof Graphics2D) {
+            ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        }
 
-            g.fillRect(x * 10, y * 10, 10, 10);
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration == null) {
+            g.drawImage(image, x, y, width, height, null);
+            return;
         }
+        do {
+            if (screenImage == null
+                    || screenImage.getWidth() != image.getWidth()
+                    || screenImage.getHeight() != image.getHeight()
+                    || screenImage.validate(configuration) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                screenImage = configuration.createCompatibleVolatileImage(image.getWidth(), image.getHeight());
+            }
+            Graphics2D screen = screenImage.createGraphics();
+            screen.drawImage(image, 0, 0, null);
+            screen.dispose();
+            g.drawImage(screenImage, x, y, width, height, null);
+        } while (screenImage.contentsLost());
     }
 
 }
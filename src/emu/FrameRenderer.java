@@ -0,0 +1,260 @@
+package emu;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Renders the native 64x32 display into a small opaque RGB image using a {@link ScaleFilter}.
+ * The pixel art filters work on packed neighbourhood bits and a precomputed lookup table,
+ * so a frame costs a few thousand table lookups no matter how large the window is.
+ */
+public class FrameRenderer {
+
+    public static final int WIDTH = 64;
+    public static final int HEIGHT = 32;
+
+    private static final int ON = 0xFFFFFF;
+    private static final int OFF = 0x000000;
+    private static final int DIMMED_ON = 0x9F9F9F;
+
+    /**
+     * Scale2x table
+     * Index: P | A << 1 | B << 2 | C << 3 | D << 4 (center, up, right, left, down)
+     * Value: 4 bits, the 2x2 output block in row-major order
+     */
+    private static final byte[] SCALE2X_TABLE = new byte[1 << 5];
+    /**
+     * Scale3x table
+     * Index: the 3x3 neighbourhood A..I in row-major order, A is bit 0
+     * Value: 9 bits, the 3x3 output block in row-major order
+     */
+    private static final short[] SCALE3X_TABLE = new short[1 << 9];
+    /**
+     * Phosphor decay, maps the intensity of the previous frame to the current one
+     */
+    private static final int[] DECAY_TABLE = new int[256];
+    /**
+     * Phosphor palette, maps an intensity to a colour
+     */
+    private static final int[] PHOSPHOR_PALETTE = new int[256];
+
+    static {
+        fillScale2xTable();
+        fillScale3xTable();
+        for (int i = 0; i < 256; i++) {
+            int decayed = (i * 3) >> 2;
+            DECAY_TABLE[i] = decayed < 16 ? 0 : decayed;
+            PHOSPHOR_PALETTE[i] = (i << 16) | (i << 8) | i;
+        }
+    }
+
+    private ScaleFilter filter;
+    private BufferedImage image;
+    private int[] pixels;
+
+    /**
+     * Display padded with one pixel on each side, so neighbourhoods never need bounds checks
+     */
+    private final int[] padded = new int[(WIDTH + 2) * (HEIGHT + 2)];
+    private final int[] intensity = new int[WIDTH * HEIGHT];
+    /**
+     * True while phosphor pixels are still fading out, written on the EDT and read by the emulation thread
+     */
+    private volatile boolean fading;
+
+    public FrameRenderer(ScaleFilter filter) {
+        setFilter(filter);
+    }
+
+    public ScaleFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(ScaleFilter filter) {
+        this.filter = filter;
+        int factor = filter.getFactor();
+        image = new BufferedImage(WIDTH * factor, HEIGHT * factor, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < intensity.length; i++) {
+            intensity[i] = 0;
+        }
+        fading = false;
+    }
+
+    /**
+     * Returns true if the last render left pixels half faded, they decay a step with every render
+     */
+    public boolean isFading() {
+        return fading;
+    }
+
+    /**
+     * Renders the display with the current filter
+     * @param display
+     * The 64x32 display as returned by the Chip
+     * @return
+     * The filtered image, its size is the native size times the filter factor
+     */
+    public BufferedImage render(byte[] display) {
+        switch (filter) {
+            case NEAREST:
+                renderNearest(display);
+                break;
+            case SCALE2X:
+                pad(display);
+                renderScale2x();
+                break;
+            case SCALE3X:
+                pad(display);
+                renderScale3x();
+                break;
+            case SCANLINE:
+                renderScanline(display);
+                break;
+            case PHOSPHOR:
+                renderPhosphor(display);
+                break;
+        }
+        return image;
+    }
+
+    private void renderNearest(byte[] display) {
+        for (int i = 0; i < display.length; i++) {
+            pixels[i] = display[i] != 0 ? ON : OFF;
+        }
+    }
+
+    private void renderScanline(byte[] display) {
+        int out = WIDTH * 2;
+        for (int y = 0; y < HEIGHT; y++) {
+            int row = y * 2 * out;
+            for (int x = 0; x < WIDTH; x++) {
+                boolean on = display[y * WIDTH + x] != 0;
+                int colour = on ? ON : OFF;
+                int dimmed = on ? DIMMED_ON : OFF;
+                pixels[row + x * 2] = colour;
+                pixels[row + x * 2 + 1] = colour;
+                pixels[row + out + x * 2] = dimmed;
+                pixels[row + out + x * 2 + 1] = dimmed;
+            }
+        }
+    }
+
+    private void renderPhosphor(byte[] display) {
+        boolean decaying = false;
+        for (int i = 0; i < display.length; i++) {
+            int value = display[i] != 0 ? 255 : DECAY_TABLE[intensity[i]];
+            intensity[i] = value;
+            pixels[i] = PHOSPHOR_PALETTE[value];
+            decaying |= value != 0 && value != 255;
+        }
+        fading = decaying;
+    }
+
+    private void renderScale2x() {
+        int stride = WIDTH + 2;
+        int out = WIDTH * 2;
+        for (int y = 0; y < HEIGHT; y++) {
+            int p = (y + 1) * stride + 1;
+            int row = y * 2 * out;
+            for (int x = 0; x < WIDTH; x++, p++) {
+                int index = padded[p]
+                        | padded[p - stride] << 1
+                        | padded[p + 1] << 2
+                        | padded[p - 1] << 3
+                        | padded[p + stride] << 4;
+                int block = SCALE2X_TABLE[index];
+                int o = row + x * 2;
+                pixels[o] = (block & 0x1) != 0 ? ON : OFF;
+                pixels[o + 1] = (block & 0x2) != 0 ? ON : OFF;
+                pixels[o + out] = (block & 0x4) != 0 ? ON : OFF;
+                pixels[o + out + 1] = (block & 0x8) != 0 ? ON : OFF;
+            }
+        }
+    }
+
+    private void renderScale3x() {
+        int stride = WIDTH + 2;
+        int out = WIDTH * 3;
+        for (int y = 0; y < HEIGHT; y++) {
+            int p = (y + 1) * stride + 1;
+            int row = y * 3 * out;
+            for (int x = 0; x < WIDTH; x++, p++) {
+                int index = padded[p - stride - 1]
+                        | padded[p - stride] << 1
+                        | padded[p - stride + 1] << 2
+                        | padded[p - 1] << 3
+                        | padded[p] << 4
+                        | padded[p + 1] << 5
+                        | padded[p + stride - 1] << 6
+                        | padded[p + stride] << 7
+                        | padded[p + stride + 1] << 8;
+                int block = SCALE3X_TABLE[index];
+                int o = row + x * 3;
+                for (int by = 0; by < 3; by++) {
+                    for (int bx = 0; bx < 3; bx++) {
+                        pixels[o + by * out + bx] = (block & (1 << (by * 3 + bx))) != 0 ? ON : OFF;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the display into the padded buffer, the border repeats the edge pixels
+     */
+    private void pad(byte[] display) {
+        int stride = WIDTH + 2;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                padded[(y + 1) * stride + x + 1] = display[y * WIDTH + x] != 0 ? 1 : 0;
+            }
+            padded[(y + 1) * stride] = padded[(y + 1) * stride + 1];
+            padded[(y + 1) * stride + WIDTH + 1] = padded[(y + 1) * stride + WIDTH];
+        }
+        System.arraycopy(padded, stride, padded, 0, stride);
+        System.arraycopy(padded, HEIGHT * stride, padded, (HEIGHT + 1) * stride, stride);
+    }
+
+    private static void fillScale2xTable() {
+        for (int i = 0; i < SCALE2X_TABLE.length; i++) {
+            int p = i & 1;
+            int a = (i >> 1) & 1;
+            int b = (i >> 2) & 1;
+            int c = (i >> 3) & 1;
+            int d = (i >> 4) & 1;
+            int e0 = (c == a && c != d && a != b) ? a : p;
+            int e1 = (a == b && a != c && b != d) ? b : p;
+            int e2 = (d == c && d != b && c != a) ? c : p;
+            int e3 = (b == d && b != a && d != c) ? d : p;
+            SCALE2X_TABLE[i] = (byte) (e0 | e1 << 1 | e2 << 2 | e3 << 3);
+        }
+    }
+
+    private static void fillScale3xTable() {
+        for (int i = 0; i < SCALE3X_TABLE.length; i++) {
+            int a = i & 1;
+            int b = (i >> 1) & 1;
+            int c = (i >> 2) & 1;
+            int d = (i >> 3) & 1;
+            int e = (i >> 4) & 1;
+            int f = (i >> 5) & 1;
+            int g = (i >> 6) & 1;
+            int h = (i >> 7) & 1;
+            int k = (i >> 8) & 1;
+
+            int e0 = (d == b && b != f && d != h) ? d : e;
+            int e1 = ((d == b && b != f && d != h && e != c) || (b == f && b != d && f != h && e != a)) ? b : e;
+            int e2 = (b == f && b != d && f != h) ? f : e;
+            int e3 = ((d == b && b != f && d != h && e != g) || (d == h && d != b && h != f && e != a)) ? d : e;
+            int e4 = e;
+            int e5 = ((b == f && b != d && f != h && e != k) || (h == f && d != h && b != f && e != c)) ? f : e;
+            int e6 = (d == h && d != b && h != f) ? d : e;
+            int e7 = ((d == h && d != b && h != f && e != k) || (h == f && d != h && b != f && e != g)) ? h : e;
+            int e8 = (h == f && d != h && b != f) ? f : e;
+
+            SCALE3X_TABLE[i] = (short) (e0 | e1 << 1 | e2 << 2 | e3 << 3 | e4 << 4
+                    | e5 << 5 | e6 << 6 | e7 << 7 | e8 << 8);
+        }
+    }
+}
@@ -1,36 +1,169 @@
 package emu;
 
 import chip.Chip;
+import chip.ChipException;
+import chip.Debugger;
+import chip.QuirkDatabase;
+import chip.QuirkProfile;
+import shm.FramePublisher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 
 public class Main extends Thread {
 
     private Chip chip8;
     private ChipFrame frame;
+    private Debugger debugger;
+    /**
+     * Publishes every frame to the file named by -Dchip8.shm, null if not requested
+     */
+    private FramePublisher publisher;
 
     public Main() {
-        chip8 = new Chip();
+        byte[] program = readProgram("./programs/tetris.c8");
+        chip8 = new Chip(selectQuirks(program));
         chip8.init();
-        chip8.loadProgram("./programs/tetris.c8");
+        chip8.loadProgram(program);
         frame = new ChipFrame(chip8);
+
+        debugger = new Debugger(chip8);
+        debugger.addListener(new Debugger.Listener() {
+            @Override
+            public void halted(Debugger debugger, String reason) {
+                System.out.println("Debugger halted: " + reason);
+                System.out.print(debugger.disassembly());
+            }
+        });
+        frame.setDebugger(debugger);
+
+        String shared = System.getProperty("chip8.shm");
+        if (shared != null) {
+            try {
+                publisher = new FramePublisher(new File(shared));
+            } catch (IOException e) {
+                System.err.println("Failed to open shared frame file: " + e.getMessage());
+            }
+        }
     }
 
+    private static byte[] readProgram(String file) {
+        try {
+            return Files.readAllBytes(new File(file).toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(0);
+            return null;
+        }
+    }
+
+    /**
+     * Looks the program up in the quirk database, unknown programs run with the legacy quirks
+     */
+    private static QuirkProfile selectQuirks(byte[] program) {
+        QuirkDatabase database = new QuirkDatabase();
+        if (new File("./quirks.txt").exists()) {
+            try {
+                database.load("./quirks.txt");
+            } catch (IOException e) {
+                System.err.println("Failed to load quirk database: " + e.getMessage());
+            }
+        }
+        QuirkProfile profile = database.lookup(program, null);
+        if (profile == null) {
+            // The hash is all that's needed to add the program to the database
+            System.out.println("Using LEGACY quirks, " + QuirkDatabase.hash(program) + " is not in quirks.txt");
+            return QuirkProfile.LEGACY;
+        }
+        System.out.println("Using " + profile + " quirks");
+        return profile;
+    }
+
+    /**
+     * 60 hz, one operation per frame at normal speed
+     */
+    private static final long FRAME_NANOS = 16000000L;
+
     public void run() {
-        // 60 hz, 60 updates per second
+        long nextFrame = System.nanoTime();
+        long reportStart = nextFrame;
+        long executed = 0;
         while (true) {
+            // Keys are sampled once per frame, so fast-forward does not change the input latency
             chip8.setKeyBuffer(frame.getKeyBuffer());
-            chip8.run();
-            if(chip8.needsRedraw()) {
+            boolean turbo = frame.isTurbo();
+            // The beep and the operation log can't keep up with fast-forward
+            chip8.setMuted(turbo);
+            chip8.setVerbose(!turbo);
+            nextFrame += FRAME_NANOS;
+
+            if (!debugger.isPaused()) {
+                int multiplier = turbo ? frame.getTurboMultiplier() : 1;
+                // Both loops stop as soon as the debugger halts the chip, only executed operations are counted
+                if (multiplier == 0) {
+                    // Uncapped: execute until the frame is over, checking the clock every few operations
+                    boolean running = true;
+                    do {
+                        for (int i = 0; i < 64 && running; i++) {
+                            running = step();
+                            if (running) {
+                                executed++;
+                            }
+                        }
+                    } while (running && System.nanoTime() < nextFrame);
+                } else {
+                    for (int i = 0; i < multiplier && step(); i++) {
+                        executed++;
+                    }
+                }
+            }
+
+            // At most one repaint per frame, no matter how many operations drew
+            // Phosphor pixels keep fading out one step per frame until they are dark
+            if(chip8.needsRedraw() || frame.isFading()) {
                 frame.repaint();
                 chip8.removeDrawFlag();
             }
-            try {
-                Thread.sleep(16);
-            } catch (InterruptedException e) {
-                // Unthrown exception
+            if (publisher != null) {
+                publisher.publish(chip8);
+            }
+
+            long now = System.nanoTime();
+            if (now - reportStart >= 1000000000L) {
+                frame.setSpeed(executed * FRAME_NANOS / (double) (now - reportStart));
+                reportStart = now;
+                executed = 0;
+            }
+
+            long sleep = nextFrame - now;
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1000000L, (int) (sleep % 1000000L));
+                } catch (InterruptedException e) {
+                    // Unthrown exception
+                }
+            } else if (sleep < -FRAME_NANOS) {
+                // Too far behind, don't try to catch up with a burst of frames
+                nextFrame = now;
             }
         }
     }
 
+    /**
+     * Executes one operation, an unsupported opcode ends the emulator
+     * @return
+     * false if the debugger halted the chip
+     */
+    private boolean step() {
+        try {
+            return chip8.run();
+        } catch (ChipException e) {
+            System.err.println(e.getMessage());
+            System.exit(0);
+            return false;
+        }
+    }
 
     public static void main(String[] args) {
         Main main = new Main();
@@ -0,0 +1,45 @@
+package emu;
+
+/**
+ * Upscaling filters available to the {@link ChipPanel}.
+ * The factor is the size of the intermediate image relative to the native 64x32 display,
+ * the panel then stretches that image by the largest integer multiple that fits the window.
+ */
+public enum ScaleFilter {
+
+    /** Every pixel becomes a single square block */
+    NEAREST("Nearest", 1),
+    /** Scale2x, also known as EPX: rounds diagonal edges */
+    SCALE2X("Scale2x / EPX", 2),
+    /** Scale3x: the 3x3 variant of Scale2x */
+    SCALE3X("Scale3x", 3),
+    /** Every second output row is dimmed to imitate a CRT */
+    SCANLINE("Scanline", 2),
+    /** Pixels fade out over a few frames instead of switching off, reduces flicker */
+    PHOSPHOR("Phosphor", 1);
+
+    private final String name;
+    private final int factor;
+
+    ScaleFilter(String name, int factor) {
+        this.name = name;
+        this.factor = factor;
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    /**
+     * Returns the filter after this one, wrapping around at the end
+     */
+    public ScaleFilter next() {
+        ScaleFilter[] filters = values();
+        return filters[(ordinal() + 1) % filters.length];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,92 @@
+package fuzz;
+
+/**
+ * Coverage bitmap shared by all fuzzing threads.
+ * The first 64k bits are hashed pc edges, the rest are (opcode family, branch) pairs.
+ */
+public class Coverage {
+
+    public static final int EDGE_BITS = 1 << 16;
+    public static final int BRANCH_BITS = 1 << 14;
+    public static final int SIZE = (EDGE_BITS + BRANCH_BITS) / 64;
+
+    /** The instruction continued with the next one */
+    public static final int NEXT = 0;
+    /** The instruction skipped the next one */
+    public static final int SKIP = 1;
+    /** The instruction jumped, called or returned */
+    public static final int JUMP = 2;
+    /** The instruction did not move the pc (FX0A waiting for a key) */
+    public static final int STALL = 3;
+
+    private final long[] bits = new long[SIZE];
+    private int count;
+
+    /**
+     * Records a single executed instruction into a trace
+     */
+    public static void record(long[] trace, int pc, int opcode, int nextPc) {
+        int edge = ((pc << 4) ^ nextPc ^ (pc >> 8)) & (EDGE_BITS - 1);
+        trace[edge >> 6] |= 1L << edge;
+
+        int outcome;
+        if (nextPc == pc + 2) outcome = NEXT;
+        else if (nextPc == pc + 4) outcome = SKIP;
+        else if (nextPc == pc) outcome = STALL;
+        else outcome = JUMP;
+        int branch = EDGE_BITS + ((family(opcode) << 2) | outcome);
+        trace[branch >> 6] |= 1L << branch;
+    }
+
+    /**
+     * Opcode family: the high nibble, plus the low byte or nibble for the multi-case opcodes
+     */
+    static int family(int opcode) {
+        int high = (opcode & 0xF000) >> 12;
+        switch (high) {
+            case 0x0:
+            case 0xE:
+            case 0xF:
+                return (high << 8) | (opcode & 0xFF);
+            case 0x8:
+                return (high << 8) | (opcode & 0xF);
+            default:
+                return high << 8;
+        }
+    }
+
+    /**
+     * Merges the trace into the global coverage
+     * @return
+     * true if the trace contained anything new
+     */
+    public boolean merge(long[] trace) {
+        // Unsynchronized pre-check, the common case of nothing new never takes the lock
+        boolean found = false;
+        for (int i = 0; i < SIZE; i++) {
+            if ((trace[i] & ~bits[i]) != 0) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            return false;
+        }
+        synchronized (this) {
+            boolean added = false;
+            for (int i = 0; i < SIZE; i++) {
+                long fresh = trace[i] & ~bits[i];
+                if (fresh != 0) {
+                    bits[i] |= fresh;
+                    count += Long.bitCount(fresh);
+                    added = true;
+                }
+            }
+            return added;
+        }
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+}
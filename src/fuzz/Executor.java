@@ -0,0 +1,142 @@
+package fuzz;
+
+import chip.Chip;
+import chip.ChipException;
+import chip.ChipState;
+
+import java.util.Arrays;
+
+/**
+ * Runs fuzz inputs on a private Chip and collects their coverage.
+ * Every thread owns its own Executor.
+ */
+public class Executor {
+
+    private static final long SEED = 0xC8C8C8C8L;
+
+    private final Chip chip;
+    /**
+     * State right after init, before any program is loaded
+     */
+    private final ChipState reset;
+    private final long[] trace = new long[Coverage.SIZE];
+
+    private Throwable crash;
+    private int crashPc;
+
+    public Executor() {
+        chip = new Chip();
+        chip.init();
+        chip.setVerbose(false);
+        chip.setMuted(true);
+        reset = new ChipState();
+        chip.saveState(reset);
+    }
+
+    /**
+     * Runs the input from reset
+     * @return
+     * true if the input crashed the chip
+     */
+    public boolean run(FuzzInput input) {
+        return run(input, null, 0, false);
+    }
+
+    /**
+     * Runs the input, forking from the parent's checkpoint at or before the given slot
+     * The parent must have the same ROM and the same inputs before that slot.
+     * Falls back to a run from reset if the parent stopped before reaching that checkpoint.
+     */
+    public boolean run(FuzzInput input, FuzzInput parent, int firstChangedSlot) {
+        return run(input, parent, firstChangedSlot, false);
+    }
+
+    /**
+     * Runs the input from reset and stores its checkpoints so it can be used as a corpus entry
+     */
+    public void recordCheckpoints(FuzzInput input) {
+        run(input, null, 0, true);
+    }
+
+    private boolean run(FuzzInput input, FuzzInput parent, int firstChangedSlot, boolean record) {
+        Arrays.fill(trace, 0);
+        crash = null;
+
+        int slot;
+        int checkpoint = firstChangedSlot / FuzzInput.CHECKPOINT_SLOTS;
+        if (parent != null && parent.checkpoints != null && parent.checkpoints[checkpoint] != null) {
+            chip.loadState(parent.checkpoints[checkpoint]);
+            slot = checkpoint * FuzzInput.CHECKPOINT_SLOTS;
+        } else {
+            chip.loadState(reset);
+            chip.loadProgram(input.rom);
+            slot = 0;
+        }
+        if (record) {
+            input.checkpoints = new ChipState[FuzzInput.INPUT_SLOTS / FuzzInput.CHECKPOINT_SLOTS];
+        }
+
+        try {
+            for (; slot < FuzzInput.INPUT_SLOTS; slot++) {
+                if (slot % FuzzInput.CHECKPOINT_SLOTS == 0) {
+                    // Reseeding at every checkpoint makes forked runs identical to full runs
+                    chip.setSeed(SEED + slot);
+                    if (record) {
+                        ChipState state = new ChipState();
+                        chip.saveState(state);
+                        input.checkpoints[slot / FuzzInput.CHECKPOINT_SLOTS] = state;
+                    }
+                }
+                chip.setKeys(input.inputs[slot]);
+                for (int cycle = 0; cycle < FuzzInput.SLOT_CYCLES; cycle++) {
+                    int pc = chip.getPc();
+                    crashPc = pc;
+                    int opcode = chip.readOpcode(pc);
+                    chip.run();
+                    Coverage.record(trace, pc, opcode, chip.getPc());
+                    if (opcode == (0x1000 | pc)) {
+                        // Jump to self, nothing will ever change again
+                        return false;
+                    }
+                }
+            }
+        } catch (ChipException e) {
+            // Unsupported opcode, the chip stopped the way it is supposed to
+            return false;
+        } catch (RuntimeException e) {
+            crash = e;
+            return true;
+        }
+        return false;
+    }
+
+    public long[] getTrace() {
+        return trace;
+    }
+
+    /**
+     * The exception of the last run, or null if it did not crash
+     */
+    public Throwable getCrash() {
+        return crash;
+    }
+
+    /**
+     * Identifies the crash of the last run by exception type and opcode family
+     * Crashes while fetching from outside of memory are reported as "fetch"
+     */
+    public String getCrashSignature() {
+        if (crash == null) {
+            return null;
+        }
+        String location = "fetch";
+        if (crashPc + 1 < 4096) {
+            location = Integer.toHexString(Coverage.family(chip.readOpcode(crashPc))).toUpperCase();
+        }
+        return crash.getClass().getSimpleName() + "@" + location;
+    }
+
+    public Chip getChip() {
+        return chip;
+    }
+}
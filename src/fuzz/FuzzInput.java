@@ -0,0 +1,55 @@
+package fuzz;
+
+import chip.ChipState;
+
+/**
+ * A single test case: the ROM and the key state for each input slot.
+ * Corpus entries also keep snapshots of the machine at every checkpoint,
+ * so input mutations can fork from the checkpoint before the first changed slot.
+ */
+public class FuzzInput {
+
+    /**
+     * Number of input slots per execution
+     */
+    public static final int INPUT_SLOTS = 64;
+    /**
+     * Cycles executed per input slot
+     */
+    public static final int SLOT_CYCLES = 32;
+    /**
+     * A checkpoint is taken at the start of every CHECKPOINT_SLOTS slots
+     */
+    public static final int CHECKPOINT_SLOTS = 16;
+    /**
+     * Largest ROM that fits between 0x200 and the end of memory
+     */
+    public static final int MAX_ROM_SIZE = 4096 - 0x200;
+
+    final byte[] rom;
+    /**
+     * Key bitmask per slot, bit N is key N
+     */
+    final short[] inputs;
+    /**
+     * Machine state at the start of slot i * CHECKPOINT_SLOTS, only set for corpus entries
+     */
+    ChipState[] checkpoints;
+
+    public FuzzInput(byte[] rom, short[] inputs) {
+        this.rom = rom;
+        this.inputs = inputs;
+    }
+
+    public FuzzInput(byte[] rom) {
+        this(rom, new short[INPUT_SLOTS]);
+    }
+
+    public byte[] getRom() {
+        return rom;
+    }
+
+    public short[] getInputs() {
+        return inputs;
+    }
+}
@@ -0,0 +1,200 @@
+package fuzz;
+
+import chip.Disassembler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coverage-guided fuzzer for the interpreter.
+ * Usage: Fuzzer [-j threads] [-t seconds] [-o directory] [seed.c8 ...]
+ */
+public class Fuzzer {
+
+    private final Coverage coverage = new Coverage();
+    private final List<FuzzInput> corpus = new CopyOnWriteArrayList<FuzzInput>();
+    private final Map<String, FuzzInput> crashes = new ConcurrentHashMap<String, FuzzInput>();
+    private final AtomicLong executions = new AtomicLong();
+    /**
+     * Numbers the crashes, only the thread that inserted a new signature draws an id
+     */
+    private final AtomicInteger crashIds = new AtomicInteger();
+    private final File outputDirectory;
+
+    private volatile boolean running = true;
+
+    public Fuzzer(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Adds a seed to the corpus, regardless of its coverage
+     */
+    public void addSeed(byte[] rom) {
+        if (rom.length > FuzzInput.MAX_ROM_SIZE) {
+            rom = Arrays.copyOf(rom, FuzzInput.MAX_ROM_SIZE);
+        }
+        FuzzInput input = new FuzzInput(rom);
+        Executor executor = new Executor();
+        executor.recordCheckpoints(input);
+        coverage.merge(executor.getTrace());
+        corpus.add(input);
+    }
+
+    /**
+     * Fuzzes with the given number of threads until the time runs out
+     */
+    public void fuzz(int threads, long seconds) throws InterruptedException {
+        if (corpus.isEmpty()) {
+            // 00E0 followed by a jump back, the mutations do the rest
+            addSeed(new byte[] { 0x00, (byte) 0xE0, 0x12, 0x00 });
+        }
+
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            final long seed = System.nanoTime() + i;
+            Thread worker = new Thread("Fuzzer-" + i) {
+                @Override
+                public void run() {
+                    work(seed);
+                }
+            };
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long start = System.currentTimeMillis();
+        long end = start + seconds * 1000;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(Math.min(5000, Math.max(1, end - System.currentTimeMillis())));
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            System.out.println("execs: " + executions.get()
+                    + " (" + (executions.get() * 60000 / elapsed) + "/min)"
+                    + ", corpus: " + corpus.size()
+                    + ", coverage: " + coverage.getCount()
+                    + ", crashes: " + crashes.size());
+        }
+
+        running = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void work(long seed) {
+        Executor executor = new Executor();
+        Mutator mutator = new Mutator(seed);
+        Random random = new Random(seed);
+        long local = 0;
+
+        while (running) {
+            FuzzInput parent = corpus.get(random.nextInt(corpus.size()));
+            FuzzInput other = corpus.get(random.nextInt(corpus.size()));
+            FuzzInput child = mutator.mutate(parent, other);
+
+            boolean crashed;
+            if (mutator.getChangedSlot() >= 0) {
+                crashed = executor.run(child, parent, mutator.getChangedSlot());
+            } else {
+                crashed = executor.run(child);
+            }
+
+            if (crashed) {
+                String signature = executor.getCrashSignature();
+                if (!crashes.containsKey(signature)) {
+                    FuzzInput minimized = new Minimizer(executor).minimize(child, signature);
+                    if (crashes.putIfAbsent(signature, minimized) == null) {
+                        report(crashIds.incrementAndGet(), signature, minimized, executor);
+                    }
+                }
+            } else if (coverage.merge(executor.getTrace())) {
+                executor.recordCheckpoints(child);
+                corpus.add(child);
+            }
+
+            // Batch the shared counter, it would otherwise be contended by every thread on every execution
+            if (++local == 256) {
+                executions.addAndGet(local);
+                local = 0;
+            }
+        }
+        executions.addAndGet(local);
+    }
+
+    private synchronized void report(int id, String signature, FuzzInput input, Executor executor) {
+        System.out.println("Crash " + id + ": " + signature);
+        if (outputDirectory == null) {
+            return;
+        }
+        outputDirectory.mkdirs();
+        String name = "crash-" + id;
+        FileOutputStream rom = null;
+        PrintWriter description = null;
+        try {
+            rom = new FileOutputStream(new File(outputDirectory, name + ".c8"));
+            rom.write(input.rom);
+
+            // Re-run the minimized input, so the report shows the machine at the moment of the crash
+            executor.run(input);
+            description = new PrintWriter(new File(outputDirectory, name + ".txt"));
+            description.println(signature);
+            description.println(executor.getCrash());
+            description.print("Keys per slot:");
+            for (short keys : input.inputs) {
+                description.print(" " + Integer.toHexString(keys & 0xFFFF).toUpperCase());
+            }
+            description.println();
+            int pc = executor.getChip().getPc();
+            description.print(Disassembler.disassemble(executor.getChip(), Math.max(0x200, pc - 8), 8));
+        } catch (IOException e) {
+            System.err.println("Failed to write crash " + name + ": " + e.getMessage());
+        } finally {
+            if (rom != null) {
+                try {
+                    rom.close();
+                } catch (IOException e) {}
+            }
+            if (description != null) {
+                description.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seconds = 60;
+        File output = new File("crashes");
+        List<File> seeds = new ArrayList<File>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-t")) {
+                seconds = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-o")) {
+                output = new File(args[++i]);
+            } else {
+                seeds.add(new File(args[i]));
+            }
+        }
+
+        Fuzzer fuzzer = new Fuzzer(output);
+        for (File seed : seeds) {
+            fuzzer.addSeed(Files.readAllBytes(seed.toPath()));
+        }
+        fuzzer.fuzz(threads, seconds);
+    }
+}
@@ -0,0 +1,64 @@
+package fuzz;
+
+import java.util.Arrays;
+
+/**
+ * Shrinks a crashing input while it keeps crashing with the same signature.
+ */
+public class Minimizer {
+
+    private final Executor executor;
+
+    public Minimizer(Executor executor) {
+        this.executor = executor;
+    }
+
+    public FuzzInput minimize(FuzzInput input, String signature) {
+        byte[] rom = input.rom;
+        short[] inputs = input.inputs;
+
+        // Shortest prefix of the ROM that still crashes
+        int low = 0;
+        int high = rom.length;
+        while (low < high) {
+            int middle = (low + high) / 2;
+            if (crashes(Arrays.copyOf(rom, middle), inputs, signature)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        rom = Arrays.copyOf(rom, high);
+
+        // Remove blocks of instructions, from large to small
+        for (int block = Math.max(2, Integer.highestOneBit(rom.length)) & ~1; block >= 2; block /= 2) {
+            for (int at = 0; at + block <= rom.length; ) {
+                byte[] candidate = new byte[rom.length - block];
+                System.arraycopy(rom, 0, candidate, 0, at);
+                System.arraycopy(rom, at + block, candidate, at, rom.length - at - block);
+                if (crashes(candidate, inputs, signature)) {
+                    rom = candidate;
+                } else {
+                    at += block;
+                }
+            }
+        }
+
+        // Release every key that is not needed
+        for (int slot = 0; slot < inputs.length; slot++) {
+            if (inputs[slot] != 0) {
+                short[] candidate = Arrays.copyOf(inputs, inputs.length);
+                candidate[slot] = 0;
+                if (crashes(rom, candidate, signature)) {
+                    inputs = candidate;
+                }
+            }
+        }
+
+        return new FuzzInput(rom, inputs);
+    }
+
+    private boolean crashes(byte[] rom, short[] inputs, String signature) {
+        return executor.run(new FuzzInput(rom, inputs)) && signature.equals(executor.getCrashSignature());
+    }
+}
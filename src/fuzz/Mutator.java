@@ -0,0 +1,127 @@
+package fuzz;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Creates new fuzz inputs from corpus entries.
+ * Either the ROM or the inputs are mutated, never both, so input mutations can fork from a checkpoint.
+ */
+public class Mutator {
+
+    /**
+     * Opcodes that reach the interesting corners of the interpreter
+     */
+    private static final int[] INTERESTING_OPCODES = {
+            0x00E0, 0x00EE, 0x1200, 0x2200, 0xA000, 0xAFFF, 0xB0FF, 0xD00F, 0xDFFF,
+            0xF033, 0xF055, 0xFF55, 0xF065, 0xFF65, 0xF01E, 0xFF1E, 0xF029, 0xF00A,
+            0x6FFF, 0x7FFF, 0x8006, 0x800E, 0x8004, 0x8005, 0x8007, 0xE09E, 0xE0A1
+    };
+
+    private final Random random;
+    private int changedSlot;
+
+    public Mutator(long seed) {
+        random = new Random(seed);
+    }
+
+    public FuzzInput mutate(FuzzInput parent, FuzzInput other) {
+        if (random.nextInt(4) == 0) {
+            return mutateInputs(parent);
+        }
+        changedSlot = -1;
+        return new FuzzInput(mutateRom(parent.rom, other.rom), parent.inputs);
+    }
+
+    /**
+     * The first input slot the last mutation changed, or -1 if it changed the ROM
+     */
+    public int getChangedSlot() {
+        return changedSlot;
+    }
+
+    private FuzzInput mutateInputs(FuzzInput parent) {
+        short[] inputs = Arrays.copyOf(parent.inputs, parent.inputs.length);
+        int slot = random.nextInt(inputs.length);
+        switch (random.nextInt(3)) {
+            case 0: // Press a single key for 1 - 8 slots
+                short key = (short) (1 << random.nextInt(16));
+                int end = Math.min(inputs.length, slot + 1 + random.nextInt(8));
+                for (int i = slot; i < end; i++) {
+                    inputs[i] |= key;
+                }
+                break;
+            case 1: // Random key state
+                inputs[slot] = (short) random.nextInt(1 << 16);
+                break;
+            default: // Release everything
+                inputs[slot] = 0;
+                break;
+        }
+        changedSlot = slot;
+        return new FuzzInput(parent.rom, inputs);
+    }
+
+    private byte[] mutateRom(byte[] rom, byte[] other) {
+        // Corpus entries are shared between threads, never mutate them in place
+        rom = rom.clone();
+        int stacking = 1 << random.nextInt(4);
+        for (int i = 0; i < stacking; i++) {
+            if (rom.length < 2) {
+                rom = Arrays.copyOf(rom, 2);
+            }
+            switch (random.nextInt(6)) {
+                case 0: { // Flip a bit
+                    int bit = random.nextInt(rom.length * 8);
+                    rom[bit >> 3] ^= (byte) (1 << (bit & 7));
+                    break;
+                }
+                case 1: { // Random byte
+                    rom[random.nextInt(rom.length)] = (byte) random.nextInt(256);
+                    break;
+                }
+                case 2: { // Overwrite an instruction with an interesting opcode
+                    int at = random.nextInt(rom.length / 2) * 2;
+                    int opcode = INTERESTING_OPCODES[random.nextInt(INTERESTING_OPCODES.length)];
+                    if (random.nextBoolean()) {
+                        opcode = (opcode & 0xF0FF) | (random.nextInt(16) << 8);
+                    }
+                    rom[at] = (byte) (opcode >> 8);
+                    rom[at + 1] = (byte) opcode;
+                    break;
+                }
+                case 3: { // Insert a random instruction
+                    if (rom.length + 2 > FuzzInput.MAX_ROM_SIZE) break;
+                    int at = random.nextInt(rom.length / 2 + 1) * 2;
+                    byte[] grown = new byte[rom.length + 2];
+                    System.arraycopy(rom, 0, grown, 0, at);
+                    grown[at] = (byte) random.nextInt(256);
+                    grown[at + 1] = (byte) random.nextInt(256);
+                    System.arraycopy(rom, at, grown, at + 2, rom.length - at);
+                    rom = grown;
+                    break;
+                }
+                case 4: { // Delete an instruction
+                    if (rom.length <= 2) break;
+                    int at = random.nextInt(rom.length / 2) * 2;
+                    byte[] shrunk = new byte[rom.length - 2];
+                    System.arraycopy(rom, 0, shrunk, 0, at);
+                    System.arraycopy(rom, at + 2, shrunk, at, rom.length - at - 2);
+                    rom = shrunk;
+                    break;
+                }
+                default: { // Splice in a block of another corpus entry
+                    int length = Math.min(other.length, 2 + random.nextInt(32));
+                    if (length == 0) break;
+                    int from = random.nextInt(other.length - length + 1);
+                    int to = random.nextInt(Math.max(1, rom.length - length + 1));
+                    byte[] spliced = Arrays.copyOf(rom, Math.max(rom.length, to + length));
+                    System.arraycopy(other, from, spliced, to, length);
+                    rom = spliced;
+                    break;
+                }
+            }
+        }
+        return rom;
+    }
+}
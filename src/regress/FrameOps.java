@@ -0,0 +1,55 @@
+package regress;
+
+/**
+ * Hashing and diffing of 64x32 frames.
+ * Frames are first packed into 32 longs, one per row with pixel x at bit x.
+ * The packing does the heavy lifting and has a Vector API implementation in the src-vector source root,
+ * the hash is defined on the packed rows so every implementation produces the same value.
+ */
+public abstract class FrameOps {
+
+    public static final int ROWS = 32;
+
+    /**
+     * Packs the 64x32 display into one long per row
+     * Pixels are 0 or 1, as the Chip stores them
+     */
+    public abstract void pack(byte[] display, long[] rows);
+
+    /**
+     * Stores the pixels that differ between the frames in out
+     * @return
+     * The number of differing pixels
+     */
+    public abstract int diff(long[] expected, long[] actual, long[] out);
+
+    /**
+     * 64-bit hash of a packed frame
+     */
+    public static long hash(long[] rows) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < ROWS; i++) {
+            hash ^= rows[i];
+            hash *= 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the Vector API implementation if the jdk.incubator.vector module is available
+     * and src-vector was compiled, the scalar implementation otherwise
+     */
+    public static FrameOps create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (FrameOps) Class.forName("regress.VectorFrameOps").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Vector API unavailable, using scalar frame operations: " + e);
+            } catch (LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar frame operations: " + e);
+            }
+        }
+        return new ScalarFrameOps();
+    }
+}
@@ -0,0 +1,170 @@
+package regress;
+
+import chip.QuirkProfile;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A golden file: the ROM to run, the scripted input and the expected frame hashes.
+ *
+ * <pre>
+ * # Comment
+ * rom ../programs/tetris.c8   ROM path, relative to the golden file
+ * quirks LEGACY               Quirk profile, optional
+ * seed 1                      Seed for CXNN, optional
+ * key 120 0010                Key bitmask (hex) from frame 120 on
+ * frame 300 1F2E3D4C5B6A7988  Expected hash (hex) after 300 frames, left empty to be recorded
+ * </pre>
+ *
+ * Each call to Chip.run() is a frame. The packed golden frames are kept next to the file
+ * in a .frames file, they are only read to draw a diff image when a hash does not match.
+ */
+public class GoldenCase {
+
+    private final File file;
+    private final List<String> lines = new ArrayList<String>();
+    /**
+     * Index in lines of every frame entry
+     */
+    private final Map<Integer, Integer> frameLines = new HashMap<Integer, Integer>();
+
+    File rom;
+    QuirkProfile quirks = QuirkProfile.LEGACY;
+    long seed;
+    final TreeMap<Integer, Integer> keys = new TreeMap<Integer, Integer>();
+    /**
+     * Expected hash per frame number, null if it still has to be recorded
+     */
+    final TreeMap<Integer, Long> frames = new TreeMap<Integer, Long>();
+
+    public GoldenCase(File file) throws IOException {
+        this.file = file;
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                parse(line, lines.size());
+            }
+        } finally {
+            reader.close();
+        }
+        if (rom == null) {
+            throw new IOException(file + ": Missing rom entry");
+        }
+    }
+
+    private void parse(String line, int number) throws IOException {
+        String content = line;
+        int comment = content.indexOf('#');
+        if (comment >= 0) {
+            content = content.substring(0, comment);
+        }
+        String[] parts = content.trim().split("\\s+");
+        if (parts[0].isEmpty()) {
+            return;
+        }
+        try {
+            if (parts[0].equals("rom") && parts.length == 2) {
+                rom = new File(file.getParentFile(), parts[1]);
+            } else if (parts[0].equals("quirks") && parts.length == 2) {
+                quirks = QuirkProfile.valueOf(parts[1]);
+            } else if (parts[0].equals("seed") && parts.length == 2) {
+                seed = Long.parseLong(parts[1]);
+            } else if (parts[0].equals("key") && parts.length == 3) {
+                keys.put(Integer.parseInt(parts[1]), Integer.parseInt(parts[2], 16));
+            } else if (parts[0].equals("frame") && (parts.length == 2 || parts.length == 3)) {
+                int frame = Integer.parseInt(parts[1]);
+                frames.put(frame, parts.length == 3 ? Long.parseUnsignedLong(parts[2], 16) : null);
+                frameLines.put(frame, number - 1);
+            } else {
+                throw new IOException(file + ":" + number + ": Unknown entry \"" + line + "\"");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ":" + number + ": " + e.getMessage());
+        }
+    }
+
+    public String getName() {
+        String name = file.getName();
+        return name.endsWith(".golden") ? name.substring(0, name.length() - 7) : name;
+    }
+
+    private File getFramesFile() {
+        return new File(file.getParentFile(), getName() + ".frames");
+    }
+
+    /**
+     * Rewrites the golden file with the given hashes and stores the packed frames
+     */
+    public void record(Map<Integer, long[]> actual) throws IOException {
+        for (Map.Entry<Integer, long[]> entry : actual.entrySet()) {
+            int frame = entry.getKey();
+            long hash = FrameOps.hash(entry.getValue());
+            frames.put(frame, hash);
+            lines.set(frameLines.get(frame), "frame " + frame + " " + String.format("%016X", hash));
+        }
+
+        PrintWriter writer = new PrintWriter(file);
+        try {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        } finally {
+            writer.close();
+        }
+
+        DataOutputStream output = new DataOutputStream(new FileOutputStream(getFramesFile()));
+        try {
+            output.writeInt(actual.size());
+            for (Map.Entry<Integer, long[]> entry : actual.entrySet()) {
+                output.writeInt(entry.getKey());
+                for (long row : entry.getValue()) {
+                    output.writeLong(row);
+                }
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Reads the packed golden frame, or returns null if it was never recorded
+     */
+    public long[] readFrame(int frame) throws IOException {
+        File frames = getFramesFile();
+        if (!frames.exists()) {
+            return null;
+        }
+        DataInputStream input = new DataInputStream(new FileInputStream(frames));
+        try {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                int number = input.readInt();
+                long[] rows = new long[FrameOps.ROWS];
+                for (int y = 0; y < rows.length; y++) {
+                    rows[y] = input.readLong();
+                }
+                if (number == frame) {
+                    return rows;
+                }
+            }
+            return null;
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package regress;
+
+import chip.Chip;
+import chip.ChipException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays golden files headlessly and compares the frame hashes.
+ * Usage: RegressionSuite [-record] [-j threads] [-o diff directory] file.golden|directory ...
+ * Compile src-vector and run with --add-modules jdk.incubator.vector to use the Vector API for packing and diffing.
+ */
+public class RegressionSuite {
+
+    private static final int DIFF_SCALE = 8;
+    private static final int BOTH = 0xFFFFFF;
+    private static final int EXPECTED_ONLY = 0xFF0000;
+    private static final int ACTUAL_ONLY = 0x00FF00;
+
+    private final FrameOps ops;
+    private final boolean record;
+    private final File diffDirectory;
+
+    public RegressionSuite(FrameOps ops, boolean record, File diffDirectory) {
+        this.ops = ops;
+        this.record = record;
+        this.diffDirectory = diffDirectory;
+    }
+
+    /**
+     * Replays the case up to its last frame
+     * @return
+     * The packed frame at every frame entry of the case
+     */
+    public Map<Integer, long[]> replay(GoldenCase golden) throws IOException {
+        Chip chip = new Chip(golden.quirks);
+        chip.init();
+        chip.setVerbose(false);
+        chip.setMuted(true);
+        chip.setSeed(golden.seed);
+        chip.loadProgram(Files.readAllBytes(golden.rom.toPath()));
+
+        Map<Integer, long[]> result = new TreeMap<Integer, long[]>();
+        if (golden.frames.isEmpty()) {
+            return result;
+        }
+        int last = golden.frames.lastKey();
+        for (int frame = 0; frame < last; ) {
+            Integer keys = golden.keys.get(frame);
+            if (keys != null) {
+                chip.setKeys(keys);
+            }
+            chip.run();
+            frame++;
+            if (golden.frames.containsKey(frame)) {
+                long[] rows = new long[FrameOps.ROWS];
+                ops.pack(chip.getDisplay(), rows);
+                result.put(frame, rows);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs a single case
+     * @return
+     * null if it passed or was recorded, otherwise a description of the failure
+     */
+    public String run(GoldenCase golden) {
+        try {
+            Map<Integer, long[]> actual = replay(golden);
+            if (record) {
+                golden.record(actual);
+                return null;
+            }
+
+            StringBuilder failures = new StringBuilder();
+            for (Map.Entry<Integer, long[]> entry : actual.entrySet()) {
+                int frame = entry.getKey();
+                Long expected = golden.frames.get(frame);
+                long hash = FrameOps.hash(entry.getValue());
+                if (expected == null) {
+                    failures.append(" frame ").append(frame).append(" not recorded;");
+                } else if (expected != hash) {
+                    failures.append(" frame ").append(frame).append(" differs");
+                    long[] rows = golden.readFrame(frame);
+                    if (rows != null) {
+                        long[] diff = new long[FrameOps.ROWS];
+                        int pixels = ops.diff(rows, entry.getValue(), diff);
+                        failures.append(" in ").append(pixels).append(" pixels");
+                        writeDiff(golden.getName() + "-" + frame, rows, entry.getValue());
+                    }
+                    failures.append(';');
+                }
+            }
+            return failures.length() == 0 ? null : failures.toString().trim();
+        } catch (IOException e) {
+            return e.toString();
+        } catch (ChipException e) {
+            return e.getMessage();
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * Writes an image with the pixels both frames share in white,
+     * the pixels only the golden frame has in red and the pixels only the actual frame has in green
+     */
+    private void writeDiff(String name, long[] expected, long[] actual) throws IOException {
+        if (diffDirectory == null) {
+            return;
+        }
+        BufferedImage image = new BufferedImage(64 * DIFF_SCALE, FrameOps.ROWS * DIFF_SCALE, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < FrameOps.ROWS; y++) {
+            for (int x = 0; x < 64; x++) {
+                boolean inExpected = (expected[y] >>> x & 1) != 0;
+                boolean inActual = (actual[y] >>> x & 1) != 0;
+                int colour = inExpected ? (inActual ? BOTH : EXPECTED_ONLY) : (inActual ? ACTUAL_ONLY : 0);
+                if (colour == 0) {
+                    continue;
+                }
+                for (int dy = 0; dy < DIFF_SCALE; dy++) {
+                    for (int dx = 0; dx < DIFF_SCALE; dx++) {
+                        image.setRGB(x * DIFF_SCALE + dx, y * DIFF_SCALE + dy, colour);
+                    }
+                }
+            }
+        }
+        diffDirectory.mkdirs();
+        ImageIO.write(image, "png", new File(diffDirectory, name + ".png"));
+    }
+
+    private static void collect(File file, List<File> cases) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    collect(child, cases);
+                }
+            }
+        } else if (file.getName().endsWith(".golden")) {
+            cases.add(file);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean record = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        File diffs = new File("diffs");
+        List<File> cases = new ArrayList<File>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-record")) {
+                record = true;
+            } else if (args[i].equals("-j")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-o")) {
+                diffs = new File(args[++i]);
+            } else {
+                collect(new File(args[i]), cases);
+            }
+        }
+
+        FrameOps ops = FrameOps.create();
+        System.out.println("Frame operations: " + ops.getClass().getSimpleName());
+        final RegressionSuite suite = new RegressionSuite(ops, record, diffs);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        final List<String> names = new ArrayList<String>();
+        for (final File file : cases) {
+            names.add(file.getPath());
+            results.add(pool.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    try {
+                        return suite.run(new GoldenCase(file));
+                    } catch (IOException e) {
+                        return e.getMessage();
+                    }
+                }
+            }));
+        }
+        pool.shutdown();
+
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            String failure = results.get(i).get();
+            if (failure == null) {
+                System.out.println((record ? "RECORDED " : "PASS ") + names.get(i));
+            } else {
+                System.out.println("FAIL " + names.get(i) + ": " + failure);
+                failed++;
+            }
+        }
+        System.out.println(cases.size() - failed + " / " + cases.size() + (record ? " recorded" : " passed"));
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,29 @@
+package regress;
+
+/** Frame operations in plain Java, used when the Vector API is not available. */
+public class ScalarFrameOps extends FrameOps {
+
+    @Override
+    public void pack(byte[] display, long[] rows) {
+        for (int y = 0; y < ROWS; y++) {
+            long row = 0;
+            int offset = y * 64;
+            for (int x = 0; x < 64; x++) {
+                if (display[offset + x] != 0) {
+                    row |= 1L << x;
+                }
+            }
+            rows[y] = row;
+        }
+    }
+
+    @Override
+    public int diff(long[] expected, long[] actual, long[] out) {
+        int count = 0;
+        for (int y = 0; y < ROWS; y++) {
+            out[y] = expected[y] ^ actual[y];
+            count += Long.bitCount(out[y]);
+        }
+        return count;
+    }
+}
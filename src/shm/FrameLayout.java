@@ -0,0 +1,51 @@
+package shm;
+
+/**
+ * Layout of the shared frame file. All values are little-endian, the layout is stable within a version.
+ *
+ * <pre>
+ * Offset  Size  Content
+ *      0     4  Magic "C8FB" (0x42463843 read as a little-endian int)
+ *      4     4  Version, currently 1
+ *      8     8  Sequence number: odd while a frame is being written, even when it is consistent
+ *     16     8  Frame counter, incremented with every published frame
+ *     24     2  pc
+ *     26     2  I
+ *     28     1  Stack pointer
+ *     29     1  Delay timer
+ *     30     1  Sound timer
+ *     31     1  Reserved, 0
+ *     32    16  V0 - VF
+ *     48    32  Stack, 16 unsigned 16-bit addresses of the 2NNN calls, a call returns to its address + 2
+ *     80   256  Display, 32 rows of 8 bytes, pixel x of a row is bit x of the row read as a little-endian long
+ *    336        End of frame, the file is padded to SIZE bytes
+ * </pre>
+ *
+ * Readers use the sequence number like a seqlock: read it, skip the frame if it is odd,
+ * copy the frame and read the sequence number again. The copy is consistent if both reads are equal.
+ */
+public class FrameLayout {
+
+    public static final int MAGIC = 0x42463843;
+    public static final int VERSION = 1;
+
+    public static final int MAGIC_OFFSET = 0;
+    public static final int VERSION_OFFSET = 4;
+    public static final int SEQUENCE_OFFSET = 8;
+    public static final int FRAME_OFFSET = 16;
+    public static final int PC_OFFSET = 24;
+    public static final int I_OFFSET = 26;
+    public static final int STACK_POINTER_OFFSET = 28;
+    public static final int DELAY_TIMER_OFFSET = 29;
+    public static final int SOUND_TIMER_OFFSET = 30;
+    public static final int V_OFFSET = 32;
+    public static final int STACK_OFFSET = 48;
+    public static final int DISPLAY_OFFSET = 80;
+    public static final int DISPLAY_ROWS = 32;
+    public static final int END = DISPLAY_OFFSET + DISPLAY_ROWS * 8;
+
+    public static final int SIZE = 512;
+
+    private FrameLayout() {
+    }
+}
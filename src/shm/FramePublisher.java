@@ -0,0 +1,83 @@
+package shm;
+
+import chip.Chip;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Publishes the state of a Chip into a memory-mapped file, see {@link FrameLayout}.
+ * Other processes map the same file and read the frames without locks, copies or sockets.
+ * A publish writes the 336 byte frame, there must be only one publisher per file.
+ */
+public class FramePublisher implements Closeable {
+
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private long sequence;
+    private long frame;
+
+    public FramePublisher(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FrameLayout.SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Continue the sequence of a previous publisher, so readers never see a number twice
+        sequence = (buffer.getLong(FrameLayout.SEQUENCE_OFFSET) + 1) & ~1L;
+        frame = buffer.getLong(FrameLayout.FRAME_OFFSET);
+        buffer.putInt(FrameLayout.MAGIC_OFFSET, FrameLayout.MAGIC);
+        buffer.putInt(FrameLayout.VERSION_OFFSET, FrameLayout.VERSION);
+        LONGS.setRelease(buffer, FrameLayout.SEQUENCE_OFFSET, sequence);
+    }
+
+    /**
+     * Writes the current state of the chip as the next frame
+     */
+    public void publish(Chip chip) {
+        LONGS.setOpaque(buffer, FrameLayout.SEQUENCE_OFFSET, ++sequence);
+        // The frame may not be written before the sequence number turned odd
+        VarHandle.storeStoreFence();
+
+        buffer.putLong(FrameLayout.FRAME_OFFSET, ++frame);
+        buffer.putShort(FrameLayout.PC_OFFSET, (short) chip.getPc());
+        buffer.putShort(FrameLayout.I_OFFSET, (short) chip.getI());
+        buffer.put(FrameLayout.STACK_POINTER_OFFSET, (byte) chip.getStackPointer());
+        buffer.put(FrameLayout.DELAY_TIMER_OFFSET, (byte) chip.getDelayTimer());
+        buffer.put(FrameLayout.SOUND_TIMER_OFFSET, (byte) chip.getSoundTimer());
+        for (int i = 0; i < 16; i++) {
+            buffer.put(FrameLayout.V_OFFSET + i, (byte) chip.getV(i));
+            buffer.putShort(FrameLayout.STACK_OFFSET + i * 2, (short) chip.getStack(i));
+        }
+
+        byte[] display = chip.getDisplay();
+        for (int y = 0; y < FrameLayout.DISPLAY_ROWS; y++) {
+            long row = 0;
+            int offset = y * 64;
+            for (int x = 0; x < 64; x++) {
+                row |= (long) (display[offset + x] & 1) << x;
+            }
+            buffer.putLong(FrameLayout.DISPLAY_OFFSET + y * 8, row);
+        }
+
+        LONGS.setRelease(buffer, FrameLayout.SEQUENCE_OFFSET, ++sequence);
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
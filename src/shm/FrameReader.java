@@ -0,0 +1,120 @@
+package shm;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the frames a {@link FramePublisher} writes, usually from another process.
+ * Usage: FrameReader file
+ */
+public class FrameReader implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    public FrameReader(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        if (channel.size() < FrameLayout.SIZE) {
+            channel.close();
+            throw new IOException(file + " is not a shared frame file");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FrameLayout.SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(FrameLayout.MAGIC_OFFSET) != FrameLayout.MAGIC
+                || buffer.getInt(FrameLayout.VERSION_OFFSET) != FrameLayout.VERSION) {
+            channel.close();
+            throw new IOException(file + " has an unknown magic number or version");
+        }
+    }
+
+    /**
+     * Returns the sequence number of the latest frame, it changes whenever a new frame is published
+     */
+    public long getSequence() {
+        return (long) FramePublisher.LONGS.getAcquire(buffer, FrameLayout.SEQUENCE_OFFSET);
+    }
+
+    /**
+     * Copies the latest consistent frame, retrying while the publisher is writing
+     */
+    public void read(SharedFrame frame) {
+        while (!tryRead(frame)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Copies the latest frame
+     * @return
+     * false if the publisher wrote to the frame during the copy, the copy is then inconsistent
+     */
+    public boolean tryRead(SharedFrame frame) {
+        long before = (long) FramePublisher.LONGS.getAcquire(buffer, FrameLayout.SEQUENCE_OFFSET);
+        if ((before & 1) != 0) {
+            return false;
+        }
+
+        frame.frame = buffer.getLong(FrameLayout.FRAME_OFFSET);
+        frame.pc = buffer.getShort(FrameLayout.PC_OFFSET) & 0xFFFF;
+        frame.I = buffer.getShort(FrameLayout.I_OFFSET) & 0xFFFF;
+        frame.stackPointer = buffer.get(FrameLayout.STACK_POINTER_OFFSET) & 0xFF;
+        frame.delayTimer = buffer.get(FrameLayout.DELAY_TIMER_OFFSET) & 0xFF;
+        frame.soundTimer = buffer.get(FrameLayout.SOUND_TIMER_OFFSET) & 0xFF;
+        for (int i = 0; i < 16; i++) {
+            frame.V[i] = buffer.get(FrameLayout.V_OFFSET + i) & 0xFF;
+            frame.stack[i] = buffer.getShort(FrameLayout.STACK_OFFSET + i * 2) & 0xFFFF;
+        }
+        for (int y = 0; y < FrameLayout.DISPLAY_ROWS; y++) {
+            frame.display[y] = buffer.getLong(FrameLayout.DISPLAY_OFFSET + y * 8);
+        }
+
+        // The copy may not be reordered after the second read of the sequence number
+        VarHandle.loadLoadFence();
+        long after = (long) FramePublisher.LONGS.getOpaque(buffer, FrameLayout.SEQUENCE_OFFSET);
+        return before == after;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Prints every new frame as text
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: FrameReader file");
+            System.exit(1);
+        }
+        FrameReader reader = new FrameReader(new File(args[0]));
+        SharedFrame frame = new SharedFrame();
+        long last = -1;
+        while (true) {
+            long sequence = reader.getSequence();
+            if (sequence != last && (sequence & 1) == 0) {
+                reader.read(frame);
+                last = sequence;
+                StringBuilder builder = new StringBuilder();
+                builder.append("Frame ").append(frame.getFrame())
+                        .append(" pc=").append(Integer.toHexString(frame.getPc()).toUpperCase())
+                        .append(" I=").append(Integer.toHexString(frame.getI()).toUpperCase())
+                        .append('\n');
+                for (int y = 0; y < FrameLayout.DISPLAY_ROWS; y++) {
+                    for (int x = 0; x < 64; x++) {
+                        builder.append(frame.getPixel(x, y) ? '#' : '.');
+                    }
+                    builder.append('\n');
+                }
+                System.out.print(builder);
+            }
+            Thread.sleep(16);
+        }
+    }
+}
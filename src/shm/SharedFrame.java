@@ -0,0 +1,56 @@
+package shm;
+
+/**
+ * A consistent copy of a published frame.
+ */
+public class SharedFrame {
+
+    long frame;
+    int pc;
+    int I;
+    int stackPointer;
+    int delayTimer;
+    int soundTimer;
+    final int[] V = new int[16];
+    final int[] stack = new int[16];
+    final long[] display = new long[FrameLayout.DISPLAY_ROWS];
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public int getI() {
+        return I;
+    }
+
+    public int getStackPointer() {
+        return stackPointer;
+    }
+
+    public int getDelayTimer() {
+        return delayTimer;
+    }
+
+    public int getSoundTimer() {
+        return soundTimer;
+    }
+
+    public int getV(int x) {
+        return V[x];
+    }
+
+    /**
+     * Returns the address of the call instruction at the given stack level, the call returns to this address + 2
+     */
+    public int getStack(int level) {
+        return stack[level];
+    }
+
+    public boolean getPixel(int x, int y) {
+        return (display[y] >>> x & 1) != 0;
+    }
+}